@@ -0,0 +1,234 @@
+package com.igknighters.processor;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.annotation.processing.SupportedSourceVersion;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.type.ArrayType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.tools.Diagnostic;
+
+/**
+ * Checks the rules AutoLog and ConstantHelper would otherwise only enforce
+ * at robot boot, so a mistake fails the build instead of the robot.
+ * <p>
+ * It only validates, nothing is generated. AutoLog and ConstantHelper still find
+ * and register members through reflection at boot.
+ * <p>
+ * Annotations are matched by name so this doesn't depend on the robot code.
+ */
+@SupportedAnnotationTypes({
+        RobotAnnotationProcessor.AL + ".DataLog",
+        RobotAnnotationProcessor.AL + ".SmartDashboard",
+        RobotAnnotationProcessor.AL + ".Shuffleboard",
+        RobotAnnotationProcessor.AL + ".Tunable",
+        RobotAnnotationProcessor.CONST + ".IntConst",
+        RobotAnnotationProcessor.CONST + ".DoubleConst",
+        RobotAnnotationProcessor.CONST + ".StringConst",
+        RobotAnnotationProcessor.CONST + ".BooleanConst"
+})
+@SupportedSourceVersion(SourceVersion.RELEASE_17)
+public class RobotAnnotationProcessor extends AbstractProcessor {
+    static final String AL = "com.igknighters.util.logging.AutoLog.AL";
+    static final String CONST = "com.igknighters.constants.ConstantHelper";
+    private static final String[] LOGGERS = { "DataLog", "SmartDashboard", "Shuffleboard" };
+    private static final String SUBSYSTEM = "edu.wpi.first.wpilibj2.command.Subsystem";
+    private static final String SENDABLE = "edu.wpi.first.util.sendable.Sendable";
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        Map<TypeElement, List<Element>> annotatedMembers = new LinkedHashMap<>();
+        for (String logger : new String[] { "DataLog", "SmartDashboard", "Shuffleboard", "Tunable" }) {
+            for (Element element : annotated(roundEnv, AL + "." + logger)) {
+                var owner = (TypeElement) element.getEnclosingElement();
+                var members = annotatedMembers.computeIfAbsent(owner, k -> new ArrayList<>());
+                if (!members.contains(element)) {
+                    members.add(element);
+                }
+            }
+        }
+        annotatedMembers.forEach((owner, members) -> {
+            checkSubsystem(owner);
+            members.forEach(this::checkLogged);
+        });
+
+        for (String constant : new String[] { "IntConst", "DoubleConst", "StringConst", "BooleanConst" }) {
+            for (Element element : annotated(roundEnv, CONST + "." + constant)) {
+                checkConstant(element, constant);
+            }
+        }
+        return false;
+    }
+
+    private Set<? extends Element> annotated(RoundEnvironment roundEnv, String annotation) {
+        TypeElement type = processingEnv.getElementUtils().getTypeElement(annotation);
+        if (type == null) {
+            return Set.of();
+        }
+        return roundEnv.getElementsAnnotatedWith(type);
+    }
+
+    private boolean has(Element element, String annotation) {
+        for (var mirror : element.getAnnotationMirrors()) {
+            var type = (TypeElement) mirror.getAnnotationType().asElement();
+            if (type.getQualifiedName().contentEquals(annotation)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void error(Element element, String msg) {
+        processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, msg, element);
+    }
+
+    private String describe(Element element) {
+        return element.getEnclosingElement().getSimpleName() + "." + element.getSimpleName();
+    }
+
+    private void checkSubsystem(TypeElement owner) {
+        TypeElement subsystem = processingEnv.getElementUtils().getTypeElement(SUBSYSTEM);
+        if (subsystem == null) {
+            return;
+        }
+        var types = processingEnv.getTypeUtils();
+        if (!types.isAssignable(types.erasure(owner.asType()), types.erasure(subsystem.asType()))) {
+            error(owner, "AutoLog annotations can only be used in a subsystem: " + owner.getSimpleName());
+        }
+    }
+
+    private void checkLogged(Element element) {
+        String name = describe(element);
+        if (has(element, AL + ".Tunable")) {
+            TypeKind kind = element.asType().getKind();
+            if (!(kind == TypeKind.BOOLEAN || kind == TypeKind.DOUBLE)) {
+                error(element, "Invalid Tunable type: " + name);
+            }
+            if (has(element, AL + ".DataLog")) {
+                error(element, "Cannot have both Tunable and DataLog annotations: " + name);
+            }
+            if (has(element, AL + ".SmartDashboard") && has(element, AL + ".Shuffleboard")) {
+                error(element, "Cannot have both Shuffleboard and SmartDashboard annotations on the same tunable field: "
+                        + name);
+            }
+            return;
+        }
+
+        String loggerPort = "";
+        for (String logger : LOGGERS) {
+            if (!has(element, AL + "." + logger)) {
+                continue;
+            }
+            if (!loggerPort.isEmpty()) {
+                error(element, "Cannot have both " + loggerPort + " and " + logger + " annotations: " + name);
+            }
+            loggerPort = logger;
+        }
+
+        TypeMirror type;
+        if (element.getKind() == ElementKind.METHOD) {
+            var method = (ExecutableElement) element;
+            if (!method.getParameters().isEmpty()) {
+                error(element, "Cannot have parameters on a logged method: " + name);
+            }
+            type = method.getReturnType();
+        } else {
+            type = element.asType();
+        }
+        if (!isLoggable(type)) {
+            error(element, "Invalid datatype " + type + ": " + name);
+        }
+    }
+
+    /**
+     * Mirrors AutoLog.DataType, arrays only as double[], boolean[] and String[]
+     * since that's what AutoLog casts array values to
+     */
+    private boolean isLoggable(TypeMirror type) {
+        if (type.getKind() == TypeKind.ARRAY) {
+            return isLoggableArrayComponent(((ArrayType) type).getComponentType());
+        }
+        if (isLoggableScalar(type)) {
+            return true;
+        }
+        TypeElement sendable = processingEnv.getElementUtils().getTypeElement(SENDABLE);
+        var types = processingEnv.getTypeUtils();
+        return sendable != null && types.isAssignable(types.erasure(type), types.erasure(sendable.asType()));
+    }
+
+    private boolean isLoggableScalar(TypeMirror type) {
+        switch (type.getKind()) {
+            case DOUBLE:
+            case BOOLEAN:
+            case INT:
+                return true;
+            case DECLARED:
+                String name = type.toString();
+                return name.equals("java.lang.Double") || name.equals("java.lang.Boolean")
+                        || name.equals("java.lang.Integer") || name.equals("java.lang.String");
+            default:
+                return false;
+        }
+    }
+
+    private boolean isLoggableArrayComponent(TypeMirror type) {
+        switch (type.getKind()) {
+            case DOUBLE:
+            case BOOLEAN:
+                return true;
+            case DECLARED:
+                return type.toString().equals("java.lang.String");
+            default:
+                return false;
+        }
+    }
+
+    private void checkConstant(Element element, String constant) {
+        String name = describe(element);
+        int count = 0;
+        for (String other : new String[] { "IntConst", "DoubleConst", "StringConst", "BooleanConst" }) {
+            if (has(element, CONST + "." + other)) {
+                count++;
+            }
+        }
+        if (count > 1) {
+            error(element, "Cannot have more than one robot constant annotation: " + name);
+        }
+        Set<Modifier> modifiers = element.getModifiers();
+        if (!modifiers.contains(Modifier.STATIC) || modifiers.contains(Modifier.FINAL)) {
+            error(element, "Robot constants have to be static and not final: " + name);
+        }
+        String type = element.asType().toString();
+        boolean valid;
+        switch (constant) {
+            case "IntConst":
+                valid = type.equals("int");
+                break;
+            case "DoubleConst":
+                valid = type.equals("double");
+                break;
+            case "StringConst":
+                valid = type.equals("java.lang.String");
+                break;
+            default:
+                valid = type.equals("boolean");
+                break;
+        }
+        if (!valid) {
+            error(element, "@" + constant + " does not match the field type " + type + ": " + name);
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package com.igknighters.util;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import com.igknighters.util.UtilPeriodic.Priority;
+
+import edu.wpi.first.hal.HAL;
+
+/**
+ * The scheduling overhead of one {@link UtilPeriodic#periodic()} cycle with {@code signals}
+ * trivial tasks spread over every priority
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class UtilPeriodicBenchmark {
+    @Param({ "10", "100", "1000" })
+    public int signals;
+
+    private long counter = 0;
+
+    @Setup
+    public void setup() {
+        HAL.initialize(500, 0);
+        // nothing gets deferred, so every cycle does the same work
+        UtilPeriodic.setLoopBudget(Double.POSITIVE_INFINITY);
+        var priorities = Priority.values();
+        for (int i = 0; i < signals; i++) {
+            UtilPeriodic.addPeriodicRunnable("Bench" + i, () -> counter++, priorities[i % priorities.length]);
+        }
+    }
+
+    @Benchmark
+    public long periodic() {
+        UtilPeriodic.periodic();
+        return counter;
+    }
+}
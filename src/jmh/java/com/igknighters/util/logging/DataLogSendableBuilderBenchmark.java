@@ -0,0 +1,55 @@
+package com.igknighters.util.logging;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import edu.wpi.first.hal.HAL;
+import edu.wpi.first.util.sendable.Sendable;
+
+/** One sendable logged through {@link DataLogSendableBuilder} with {@code signals} double properties */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class DataLogSendableBuilderBenchmark {
+    @Param({ "10", "100", "1000" })
+    public int signals;
+
+    private DataLogSendableBuilder builder;
+    private double value = 0.0;
+    private long cycle = 0;
+
+    @Setup
+    public void setup() {
+        HAL.initialize(500, 0);
+        builder = new DataLogSendableBuilder("Bench");
+        Sendable sendable = sendableBuilder -> {
+            for (int i = 0; i < signals; i++) {
+                int offset = i;
+                sendableBuilder.addDoubleProperty("value" + i, () -> value + offset, null);
+            }
+        };
+        sendable.initSendable(builder);
+    }
+
+    @TearDown
+    public void tearDown() {
+        builder.close();
+    }
+
+    @Benchmark
+    public void sampleAndFlush() {
+        value++;
+        int slot = (int) (cycle++ % AsyncLogPipeline.SLOTS);
+        builder.sample(slot);
+        builder.flush(slot, cycle * 20_000L);
+    }
+}
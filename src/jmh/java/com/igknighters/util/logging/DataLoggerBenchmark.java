@@ -0,0 +1,55 @@
+package com.igknighters.util.logging;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import edu.wpi.first.hal.HAL;
+
+/**
+ * What {@link DataLogger} costs per cycle, entries are added through {@link DataLogger#addDouble}
+ * and its stage is sampled and flushed on the benchmark thread. {@link #sample()} is the robot
+ * thread's share and {@link #sampleAndFlush()} adds the appends the log thread does.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class DataLoggerBenchmark {
+    @Param({ "10", "100", "1000" })
+    public int signals;
+
+    private DataLogRegistry registry;
+    private double value = 0.0;
+    private long cycle = 0;
+
+    @Setup
+    public void setup() {
+        HAL.initialize(500, 0);
+        for (int i = 0; i < signals; i++) {
+            int offset = i;
+            DataLogger.addDouble("Bench/" + signals + "/" + i, () -> value + offset);
+        }
+        registry = DataLogger.registry();
+    }
+
+    @Benchmark
+    public void sample() {
+        value++;
+        registry.sample((int) (cycle++ % AsyncLogPipeline.SLOTS));
+    }
+
+    @Benchmark
+    public void sampleAndFlush() {
+        value++;
+        int slot = (int) (cycle++ % AsyncLogPipeline.SLOTS);
+        registry.sample(slot);
+        registry.flush(slot, cycle * 20_000L);
+    }
+}
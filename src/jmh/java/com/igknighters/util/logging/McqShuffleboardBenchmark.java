@@ -0,0 +1,43 @@
+package com.igknighters.util.logging;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import edu.wpi.first.hal.HAL;
+import edu.wpi.first.util.sendable.Sendable;
+
+/** Running the shuffleboard sendable tasks with {@code signals} sendables of one property each */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class McqShuffleboardBenchmark {
+    @Param({ "10", "100", "1000" })
+    public int signals;
+
+    private double value = 0.0;
+
+    @Setup
+    public void setup() {
+        HAL.initialize(500, 0);
+        var tab = McqShuffleboardApi.getTab("Bench");
+        for (int i = 0; i < signals; i++) {
+            int offset = i;
+            Sendable sendable = builder -> builder.addDoubleProperty("value", () -> value + offset, null);
+            tab.addSendable("sendable" + i, sendable);
+        }
+    }
+
+    @Benchmark
+    public void runTasks() {
+        value++;
+        McqShuffleboardApi.runTasks();
+    }
+}
@@ -0,0 +1,42 @@
+package com.igknighters.util.testing;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import edu.wpi.first.hal.HAL;
+import edu.wpi.first.networktables.NetworkTableEntry;
+
+/** One cycle of tunable updating with {@code signals} tunables that each read one NT entry */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class TunableValuesBenchmark {
+    @Param({ "10", "100", "1000" })
+    public int signals;
+
+    private double sink = 0.0;
+
+    @Setup
+    public void setup() {
+        HAL.initialize(500, 0);
+        for (int i = 0; i < signals; i++) {
+            NetworkTableEntry entry = TunableValuesAPI.getTunableNTEntry("Bench", "value" + i);
+            entry.setDouble(i);
+            TunableValuesAPI.addTunableRunnable(() -> sink += entry.getDouble(0.0));
+        }
+    }
+
+    @Benchmark
+    public double updateSegment() {
+        TunableValuesAPI.updateSegment();
+        return sink;
+    }
+}
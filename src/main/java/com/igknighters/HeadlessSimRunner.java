@@ -0,0 +1,130 @@
+package com.igknighters;
+
+import java.util.ArrayList;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicReference;
+
+import com.igknighters.util.LoopOverrunDetector;
+import com.igknighters.util.UtilPeriodic;
+
+import edu.wpi.first.hal.HAL;
+import edu.wpi.first.wpilibj.TimedRobot;
+import edu.wpi.first.wpilibj.simulation.DriverStationSim;
+import edu.wpi.first.wpilibj.simulation.SimHooks;
+
+/**
+ * Runs the robot in simulation on simulated time, as fast as the CPU allows and
+ * without a driver station.
+ * <p>
+ * HAL timing is paused and stepped one robot period at a time, {@link SimHooks#stepTiming(double)}
+ * only returns once every notifier that was due (the TimedRobot loop, {@link UtilPeriodic},
+ * the fast loop) ran, so every run of the same code and schedule sees the same FPGA timestamps
+ * and the same order of events. The {@link UtilPeriodic} loop budget is lifted so no task is
+ * deferred based on how fast the machine happens to be.
+ * <p>
+ * The schedule is a comma separated list of {@code mode:seconds}, with mode one of
+ * {@code disabled}, {@code auto}, {@code teleop} or {@code test}, taken from the first
+ * argument or the {@code SIM_SCHEDULE} environment variable, for example
+ * {@code ./gradlew simulateJava -Pheadless -PsimSchedule=disabled:1,auto:15}.
+ * <p>
+ * Phoenix runs its simulated devices on wall clock time, so CAN signal values
+ * can differ slightly between runs when stepping faster than real time. The loop
+ * overrun count in the summary is also wall clock time, only the cycle count is repeatable.
+ */
+public final class HeadlessSimRunner {
+    public static final String kDefaultSchedule = "disabled:1,auto:15,teleop:135";
+
+    private enum Mode {
+        disabled, auto, teleop, test
+    }
+
+    private static class Phase {
+        final Mode mode;
+        final double seconds;
+
+        Phase(Mode mode, double seconds) {
+            this.mode = mode;
+            this.seconds = seconds;
+        }
+    }
+
+    private HeadlessSimRunner() {
+    }
+
+    private static ArrayList<Phase> parseSchedule(String schedule) {
+        var phases = new ArrayList<Phase>();
+        for (String part : schedule.split(",")) {
+            String[] split = part.trim().split(":");
+            if (split.length != 2) {
+                throw new IllegalArgumentException("Schedule entries look like mode:seconds, got " + part);
+            }
+            phases.add(new Phase(Mode.valueOf(split[0].trim().toLowerCase(Locale.ROOT)),
+                    Double.parseDouble(split[1].trim())));
+        }
+        return phases;
+    }
+
+    private static void setMode(Mode mode) {
+        DriverStationSim.setAutonomous(mode == Mode.auto);
+        DriverStationSim.setTest(mode == Mode.test);
+        DriverStationSim.setEnabled(mode != Mode.disabled);
+        DriverStationSim.notifyNewData();
+    }
+
+    public static void main(String... args) {
+        String schedule = args.length > 0 ? args[0] : System.getenv("SIM_SCHEDULE");
+        var phases = parseSchedule(schedule == null || schedule.isBlank() ? kDefaultSchedule : schedule);
+
+        if (!HAL.initialize(500, 0)) {
+            throw new IllegalStateException("Failed to initialize the HAL");
+        }
+        SimHooks.pauseTiming();
+        DriverStationSim.setDsAttached(true);
+        setMode(Mode.disabled);
+
+        var robot = new AtomicReference<Robot>();
+        var failure = new AtomicReference<Throwable>();
+        var robotThread = new Thread(() -> {
+            robot.set(new Robot());
+            robot.get().startCompetition();
+        }, "Robot");
+        robotThread.setDaemon(true);
+        robotThread.setUncaughtExceptionHandler((thread, e) -> {
+            failure.set(e);
+            e.printStackTrace();
+        });
+        robotThread.start();
+        // robotInit is done once the program reports it started
+        SimHooks.waitForProgramStart();
+        UtilPeriodic.setLoopBudget(Double.POSITIVE_INFINITY);
+
+        double period = TimedRobot.kDefaultPeriod;
+        long cycles = 0;
+        long startNs = System.nanoTime();
+        outer: for (var phase : phases) {
+            setMode(phase.mode);
+            long phaseCycles = Math.round(phase.seconds / period);
+            for (long i = 0; i < phaseCycles; i++) {
+                SimHooks.stepTiming(period);
+                cycles++;
+                if (failure.get() != null || !robotThread.isAlive()) {
+                    break outer;
+                }
+            }
+        }
+        double wallSeconds = (System.nanoTime() - startNs) * 1e-9;
+        double simSeconds = cycles * period;
+
+        // overruns are timed on the wall clock, so unlike everything else they differ between runs
+        System.out.printf(Locale.ROOT, "Simulated %d cycles (%.1fs) in %.2fs, %.1fx real time, "
+                + "%d loop overruns (wall clock, not deterministic)%n",
+                cycles, simSeconds, wallSeconds, simSeconds / Math.max(wallSeconds, 1e-9),
+                LoopOverrunDetector.getOverrunCount());
+
+        if (robot.get() != null) {
+            robot.get().endCompetition();
+        }
+        HAL.shutdown();
+        System.exit(failure.get() == null ? 0 : 1);
+    }
+}
@@ -4,7 +4,11 @@
 
 package com.igknighters;
 
+import com.igknighters.util.LoopOverrunDetector;
+import com.igknighters.util.LoopProfiler;
 import com.igknighters.util.UtilPeriodic;
+import com.igknighters.util.hardware.DeviceConfigurator;
+import com.igknighters.util.hardware.StatusSignalRegistry;
 import com.igknighters.util.logging.BootupLogger;
 
 import edu.wpi.first.wpilibj.DataLogManager;
@@ -24,6 +28,9 @@ public class Robot extends TimedRobot {
 
     //DONT TOUCH THIS
 
+    private static final int robotLoopTimer = LoopProfiler.register(UtilPeriodic.robotLoopKey);
+    private static final int schedulerTimer = LoopProfiler.register("CommandScheduler");
+
     public Robot() {
         super();
         DataLogManager.getLog();
@@ -32,8 +39,11 @@ public class Robot extends TimedRobot {
 
     @Override
     protected void loopFunc() {
-        UtilPeriodic.startTimer(UtilPeriodic.robotLoopKey);
+        LoopOverrunDetector.loopFuncStart();
+        StatusSignalRegistry.refreshAll();
+        LoopProfiler.start(robotLoopTimer);
         super.loopFunc();
+        LoopOverrunDetector.loopFuncEnd();
     }
 
     @Override
@@ -53,6 +63,7 @@ public class Robot extends TimedRobot {
     public void robotInit() {
         BootupLogger.BootupLog("Robot Init");
         RobotContainer.robotStartup();
+        DeviceConfigurator.awaitAll(DeviceConfigurator.kDefaultTimeout);
         UtilPeriodic.addCallback(this);
         BootupLogger.BootupLog("Done");
     }
@@ -69,10 +80,10 @@ public class Robot extends TimedRobot {
      */
     @Override
     public void robotPeriodic() {
-        UtilPeriodic.endTimer(UtilPeriodic.robotLoopKey);
-        UtilPeriodic.startTimer("CommandScheduler");
+        LoopProfiler.end(robotLoopTimer);
+        LoopProfiler.start(schedulerTimer);
         CommandScheduler.getInstance().run();
-        UtilPeriodic.endTimer("CommandScheduler");
+        LoopProfiler.end(schedulerTimer);
     }
 
     /** This function is called once when autonomous is enabled. */
@@ -8,6 +8,7 @@ import com.igknighters.controllers.OperatorController;
 import com.igknighters.controllers.TestingController;
 import com.igknighters.subsystems.Resources.AllSubsystems;
 import com.igknighters.util.logging.LogInit;
+import com.igknighters.util.simulation.SimEngine;
 
 import edu.wpi.first.wpilibj.DriverStation;
 
@@ -71,5 +72,6 @@ public class RobotContainer {
     }
 
     public static void simulationPeriodic() {
+        SimEngine.step();
     }
 }
@@ -119,34 +119,22 @@ public class ConstantHelper {
                 e.printStackTrace();
             }
         }
-        if ((field.getType().isPrimitive() || field.getType() == String.class) && !fieldIgnoreNT) {
+        if (!(field.getType().isPrimitive() || field.getType() == String.class) || fieldIgnoreNT) {
+            ConstantProfile.track(field, null);
+        } else {
             NetworkTableEntry entry = rootTable.get().getEntry(field.getName());
+            ConstantProfile.track(field, entry);
             try {
                 entry.setValue(field.get(obj));
             } catch (IllegalAccessException e) {
                 DriverStation.reportError("Error setting value for " + obj.getName() + "." + field.getName(), false);
             }
             if (isTunable) {
-                TunableValuesAPI.addTunableRunnable(() -> {
-                    try {
-                        Class<?> type = field.getType();
-                        if (type == int.class) {
-                            field.setInt(obj, (int) entry.getInteger(0));
-                        } else if (type == double.class) {
-                            field.setDouble(obj, entry.getDouble(0));
-                        } else if (type == String.class) {
-                            field.set(obj, entry.getString(""));
-                        } else if (type == boolean.class) {
-                            field.setBoolean(obj, entry.getBoolean(false));
-                        }
-                    } catch (IllegalAccessException e) {
-                        DriverStation.reportError("Error setting value for " + obj.getName() + "." + field.getName(),
-                                false);
-                    }
-                });
+                // staged until the tuning session is committed, see ConstantProfile
+                TunableValuesAPI.addTunableListener(entry, value -> ConstantProfile.stage(field, value.getValue()));
             } else {
-                // makes the value "immutable" on nt by just repeatedly setting it
-                TunableValuesAPI.addTunableRunnable(() -> {
+                // makes the value "immutable" on nt by writing it back whenever someone changes it
+                TunableValuesAPI.addTunableListener(entry, value -> {
                     try {
                         entry.setValue(field.get(obj));
                     } catch (IllegalAccessException e) {
@@ -177,13 +165,36 @@ public class ConstantHelper {
         }
     }
 
+    /**
+     * Setting Commit or Revert to true ends the tuning session, ClearSaved deletes
+     * the saved profile, see {@link ConstantProfile}
+     */
+    private static void addSessionEntries(NetworkTable rootTable) {
+        addTrigger(rootTable.getEntry("Commit"), ConstantProfile::commit);
+        addTrigger(rootTable.getEntry("Revert"), ConstantProfile::revert);
+        addTrigger(rootTable.getEntry("ClearSaved"), ConstantProfile::clearSaved);
+    }
+
+    /** Runs the action when the entry is set to true from NT, then sets it back to false */
+    private static void addTrigger(NetworkTableEntry entry, Runnable action) {
+        entry.setBoolean(false);
+        TunableValuesAPI.addTunableListener(entry, value -> {
+            if (value.isBoolean() && value.getBoolean()) {
+                action.run();
+                entry.setBoolean(false);
+            }
+        });
+    }
+
     public static void applyRoboConst(Class<ConstValues> consts) {
         Optional<NetworkTable> rootTable;
         if (ConstValues.DEBUG) {
             rootTable = Optional.of(NetworkTableInstance.getDefault().getTable("Constants"));
+            addSessionEntries(rootTable.get());
         } else {
             rootTable = Optional.empty();
         }
+        ConstantProfile.readFile();
         for (Class<?> clazz : consts.getDeclaredClasses()) {
             handleConstSubclass(clazz, rootTable, ConstValues.DEBUG);
         }
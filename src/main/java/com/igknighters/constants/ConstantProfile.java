@@ -0,0 +1,311 @@
+package com.igknighters.constants;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Supplier;
+
+import com.igknighters.constants.ConstantHelper.NTIgnore;
+import com.igknighters.constants.ConstantHelper.TunableIgnore;
+import com.igknighters.util.logging.BootupLogger;
+
+import edu.wpi.first.networktables.NetworkTableEntry;
+import edu.wpi.first.wpilibj.DriverStation;
+import edu.wpi.first.wpilibj.Filesystem;
+
+/**
+ * Tuning sessions for {@link ConstValues}.
+ * <p>
+ * Edits from NetworkTables are staged instead of written straight to the constants,
+ * {@link #commit()} then writes every staged value at once and rebuilds every {@link Group}.
+ * All groups live in one array that is swapped with a single write, so a group always
+ * holds a consistent set of values and reading one is a plain field read.
+ * <p>
+ * Only the constants changed by a commit are saved to {@link #kFileName} in the deploy
+ * directory, they are applied again every boot after the yin/yang annotations until
+ * {@link #clearSaved()} removes them.
+ *
+ * <pre>{@code
+ * record Pid(double p, double i, double d) {}
+ * private final ConstantProfile.Group<Pid> pid = ConstantProfile.group(
+ *         () -> new Pid(kArm.P, kArm.I, kArm.D));
+ * ...
+ * var gains = pid.get();
+ * }</pre>
+ */
+public class ConstantProfile {
+    public static final String kFileName = "constants.properties";
+
+    private static final Map<String, Field> fields = new LinkedHashMap<>();
+    private static final Map<String, NetworkTableEntry> entries = new LinkedHashMap<>();
+    private static final Map<String, Object> staged = new LinkedHashMap<>();
+    private static final ArrayList<Supplier<?>> groupFactories = new ArrayList<>();
+    private static final Properties saved = new Properties();
+    // what the profile holds, the saved values that were applied plus every commit since boot
+    private static final Properties overrides = new Properties();
+    // every write and delete of the file goes through here so they happen in order
+    private static final ExecutorService writer = Executors.newSingleThreadExecutor(r -> {
+        var thread = new Thread(r, "ConstantProfile");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private static volatile Object[] groupValues = new Object[0];
+    private static long version = 0;
+
+    /** A set of related constants that is always read as a whole */
+    public static final class Group<T> {
+        private final int index;
+
+        private Group(int index) {
+            this.index = index;
+        }
+
+        /** @return the values as of the last commit */
+        @SuppressWarnings("unchecked")
+        public T get() {
+            return (T) groupValues[index];
+        }
+    }
+
+    /**
+     * Creates a group, the factory reads the constants it needs and should return an
+     * immutable object, it runs now and again on every commit. Robot thread only.
+     */
+    public static <T> Group<T> group(Supplier<T> factory) {
+        groupFactories.add(factory);
+        Object[] values = Arrays.copyOf(groupValues, groupFactories.size());
+        values[values.length - 1] = factory.get();
+        groupValues = values;
+        return new Group<>(values.length - 1);
+    }
+
+    /** @return the path a constant is saved under, like {@code kExample/kNested/NESTED_CONST} */
+    public static String pathOf(Field field) {
+        String cls = field.getDeclaringClass().getName();
+        int start = cls.indexOf('$');
+        if (start < 0) {
+            return field.getName();
+        }
+        return cls.substring(start + 1).replace('$', '/') + "/" + field.getName();
+    }
+
+    private static boolean isPersistable(Field field) {
+        int modifiers = field.getModifiers();
+        if (!Modifier.isStatic(modifiers) || Modifier.isFinal(modifiers)) {
+            return false;
+        }
+        if (!field.getType().isPrimitive() && field.getType() != String.class) {
+            return false;
+        }
+        if (field.isAnnotationPresent(TunableIgnore.class) || field.isAnnotationPresent(NTIgnore.class)) {
+            return false;
+        }
+        for (Class<?> cls = field.getDeclaringClass(); cls != null; cls = cls.getEnclosingClass()) {
+            if (cls.isAnnotationPresent(TunableIgnore.class) || cls.isAnnotationPresent(NTIgnore.class)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Converts a value from NetworkTables or the profile file to the field's type
+     *
+     * @return null if it can't be converted
+     */
+    static Object coerce(Class<?> type, Object value) {
+        if (value instanceof String && type != String.class) {
+            try {
+                if (type == boolean.class) {
+                    return Boolean.parseBoolean((String) value);
+                }
+                value = Double.parseDouble((String) value);
+            } catch (NumberFormatException e) {
+                return null;
+            }
+        }
+        if (type == int.class && value instanceof Number) {
+            return ((Number) value).intValue();
+        } else if (type == long.class && value instanceof Number) {
+            return ((Number) value).longValue();
+        } else if (type == double.class && value instanceof Number) {
+            return ((Number) value).doubleValue();
+        } else if (type == float.class && value instanceof Number) {
+            return ((Number) value).floatValue();
+        } else if (type == boolean.class && value instanceof Boolean) {
+            return value;
+        } else if (type == String.class && value instanceof String) {
+            return value;
+        }
+        return null;
+    }
+
+    private static Path file() {
+        return Filesystem.getDeployDirectory().toPath().resolve(kFileName);
+    }
+
+    /** Reads the saved profile, call before any constant is tracked */
+    static void readFile() {
+        Path path = file();
+        if (!Files.exists(path)) {
+            return;
+        }
+        try (InputStream in = Files.newInputStream(path)) {
+            saved.load(in);
+            BootupLogger.BootupLog("Loaded " + saved.size() + " saved constants from " + kFileName);
+        } catch (IOException e) {
+            DriverStation.reportWarning("Could not read " + kFileName + ": " + e.getMessage(), false);
+        }
+    }
+
+    /**
+     * Tracks a constant after its robot specific value was applied,
+     * overwrites it with the saved value if there is one
+     *
+     * @param entry where the constant is published, null if it isn't
+     */
+    static void track(Field field, NetworkTableEntry entry) {
+        if (!isPersistable(field)) {
+            return;
+        }
+        String path = pathOf(field);
+        fields.put(path, field);
+        if (entry != null) {
+            entries.put(path, entry);
+        }
+        String savedValue = saved.getProperty(path);
+        if (savedValue == null) {
+            return;
+        }
+        Object value = coerce(field.getType(), savedValue);
+        if (value == null) {
+            DriverStation.reportWarning("Saved constant " + path + " is not a " + field.getType(), false);
+            return;
+        }
+        try {
+            field.set(null, value);
+            overrides.setProperty(path, savedValue);
+            BootupLogger.BootupLog("Applied saved constant " + path + " = " + savedValue);
+        } catch (IllegalAccessException e) {
+            DriverStation.reportError("Error applying saved constant " + path, false);
+        }
+    }
+
+    /** Stages an edit until the next {@link #commit()}, robot thread only */
+    static void stage(Field field, Object value) {
+        String path = pathOf(field);
+        if (!fields.containsKey(path)) {
+            return;
+        }
+        Object coerced = coerce(field.getType(), value);
+        if (coerced == null) {
+            DriverStation.reportWarning("Ignoring " + value + " for constant " + path, false);
+            return;
+        }
+        staged.put(path, coerced);
+    }
+
+    /** @return how many edits are waiting for a commit */
+    public static int getStagedCount() {
+        return staged.size();
+    }
+
+    /** @return how many times the constants were committed since boot */
+    public static long getVersion() {
+        return version;
+    }
+
+    /** Applies every staged edit, rebuilds every group and saves the profile. Robot thread only */
+    public static void commit() {
+        if (staged.isEmpty()) {
+            return;
+        }
+        for (var edit : staged.entrySet()) {
+            try {
+                fields.get(edit.getKey()).set(null, edit.getValue());
+                overrides.setProperty(edit.getKey(), String.valueOf(edit.getValue()));
+            } catch (IllegalAccessException e) {
+                DriverStation.reportError("Error committing constant " + edit.getKey(), false);
+            }
+        }
+        int count = staged.size();
+        staged.clear();
+
+        Object[] values = new Object[groupFactories.size()];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = groupFactories.get(i).get();
+        }
+        groupValues = values;
+        version++;
+        BootupLogger.BootupLog("Committed " + count + " constants, version " + version);
+        save();
+    }
+
+    /** Drops every staged edit and republishes the committed values. Robot thread only */
+    public static void revert() {
+        for (String path : staged.keySet()) {
+            var entry = entries.get(path);
+            if (entry == null) {
+                continue;
+            }
+            try {
+                entry.setValue(fields.get(path).get(null));
+            } catch (IllegalAccessException e) {
+                DriverStation.reportError("Error reverting constant " + path, false);
+            }
+        }
+        staged.clear();
+    }
+
+    /**
+     * Deletes the saved profile after any save queued before it, constants keep their
+     * current values until the next boot where they go back to the ones in code. Robot thread only
+     */
+    public static void clearSaved() {
+        int count = overrides.size();
+        overrides.clear();
+        saved.clear();
+        BootupLogger.BootupLog("Cleared " + count + " saved constants");
+        writer.execute(() -> {
+            try {
+                Files.deleteIfExists(file());
+            } catch (IOException e) {
+                DriverStation.reportWarning("Could not delete " + kFileName + ": " + e.getMessage(), false);
+            }
+        });
+    }
+
+    /** Writes the committed constants to the profile on the writer thread, in order with clears */
+    private static void save() {
+        var profile = new Properties();
+        profile.putAll(overrides);
+        writer.execute(() -> {
+            Path path = file();
+            Path temp = path.resolveSibling(kFileName + ".tmp");
+            try (OutputStream out = Files.newOutputStream(temp)) {
+                profile.store(out, "Committed constants, applied at boot");
+            } catch (IOException e) {
+                DriverStation.reportWarning("Could not save " + kFileName + ": " + e.getMessage(), false);
+                return;
+            }
+            try {
+                Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (IOException e) {
+                DriverStation.reportWarning("Could not save " + kFileName + ": " + e.getMessage(), false);
+            }
+        });
+    }
+}
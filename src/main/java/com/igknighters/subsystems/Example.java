@@ -8,7 +8,10 @@ import com.igknighters.constants.ConstValues;
 import com.igknighters.subsystems.Resources.TestableSubsystem;
 import com.igknighters.util.hardware.McqTalonFX;
 import com.igknighters.util.logging.AutoLog.AL;
+import com.igknighters.util.simulation.MechanismSim;
+import com.igknighters.util.simulation.SimEngine;
 
+import edu.wpi.first.math.system.plant.DCMotor;
 import edu.wpi.first.wpilibj2.command.SubsystemBase;
 
 public class Example extends SubsystemBase implements TestableSubsystem {
@@ -25,6 +28,8 @@ public class Example extends SubsystemBase implements TestableSubsystem {
 
     /** Creates a new Example. */
     public Example() {
+        talon.ifSimEnable();
+        SimEngine.attach(MechanismSim.flywheel(DCMotor.getFalcon500(1), 1.0, 0.004), talon);
     }
 
     @AL.Shuffleboard(pos = { 3, 1 }, size = { 2, 1 })
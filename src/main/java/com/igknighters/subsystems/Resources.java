@@ -4,6 +4,7 @@ import java.util.List;
 import java.util.Optional;
 import java.util.function.Supplier;
 
+import com.igknighters.util.LoopProfiler;
 import com.igknighters.util.logging.AutoLog;
 import com.igknighters.util.logging.BootupLogger;
 
@@ -99,6 +100,7 @@ public class Resources {
         private <T extends TestableSubsystem> Optional<T> createSubsystem(Supplier<T> subsystemSupplier) {
             T subsystem = subsystemSupplier.get();
             BootupLogger.BootupLog("Subsystem " + subsystem.getClass().getSimpleName() + " created");
+            LoopProfiler.profileSubsystem(subsystem);
             AutoLog.setupSubsystemLogging(subsystem);
             return Optional.of(subsystem);
         }
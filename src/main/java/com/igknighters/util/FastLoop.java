@@ -0,0 +1,136 @@
+package com.igknighters.util;
+
+import java.util.Arrays;
+
+import com.igknighters.util.logging.BootupLogger;
+
+import edu.wpi.first.util.datalog.DoubleArrayLogEntry;
+import edu.wpi.first.wpilibj.DataLogManager;
+import edu.wpi.first.wpilibj.DriverStation;
+import edu.wpi.first.wpilibj.Notifier;
+import edu.wpi.first.wpilibj.RobotBase;
+import edu.wpi.first.wpilibj.Threads;
+
+/**
+ * Runs control tasks faster than the robot loop on their own notifier thread,
+ * which gets real-time priority on the robot.
+ * <p>
+ * Tasks run in the order they were added. They run concurrently with the
+ * command-based code, so exchange data through {@link StateBuffer} or other
+ * thread-safe state instead of reading subsystem fields directly.
+ * <p>
+ * Every second {@code Profiler/FastLoop} (time per loop) and {@code Profiler/FastLoop.period}
+ * (time between loop starts) are written to the datalog in the {@link LoopProfiler} layout.
+ */
+public class FastLoop {
+    /** 200hz */
+    public static final double kDefaultPeriod = 0.005;
+    /** Low end of the real-time range, still above every non real-time thread */
+    private static final int RT_PRIORITY = 15;
+
+    private static volatile Runnable[] tasks = new Runnable[0];
+    private static String[] keys = new String[0];
+    private static Notifier notifier;
+    private static volatile double period = kDefaultPeriod;
+
+    // only touched by the notifier thread
+    private static boolean prioritySet = false;
+    private static long lastStartNs = -1;
+    private static int loopsSinceSummary = 0;
+    private static final LatencyHistogram durations = new LatencyHistogram();
+    private static final LatencyHistogram periods = new LatencyHistogram();
+    private static final double[] summary = new double[6];
+    private static final DoubleArrayLogEntry durationEntry = new DoubleArrayLogEntry(
+            DataLogManager.getLog(), "Profiler/FastLoop");
+    private static final DoubleArrayLogEntry periodEntry = new DoubleArrayLogEntry(
+            DataLogManager.getLog(), "Profiler/FastLoop.period");
+
+    private static volatile long overrunCount = 0;
+
+    /**
+     * Adds a task to the fast loop and starts it if it isn't running yet,
+     * adding a task with a key that already exists replaces it
+     */
+    public static synchronized void addTask(String key, Runnable task) {
+        int index = Arrays.asList(keys).indexOf(key);
+        Runnable[] newTasks;
+        if (index >= 0) {
+            newTasks = tasks.clone();
+        } else {
+            index = keys.length;
+            keys = Arrays.copyOf(keys, index + 1);
+            keys[index] = key;
+            newTasks = Arrays.copyOf(tasks, index + 1);
+        }
+        newTasks[index] = task;
+        tasks = newTasks;
+        if (notifier == null) {
+            start();
+        }
+    }
+
+    /** Changes the loop period, restarts the loop if it's running */
+    public static synchronized void setPeriod(double periodSeconds) {
+        if (periodSeconds <= 0) {
+            throw new IllegalArgumentException("Fast loop period must be positive");
+        }
+        period = periodSeconds;
+        if (notifier != null) {
+            notifier.startPeriodic(period);
+        }
+    }
+
+    public static double getPeriod() {
+        return period;
+    }
+
+    private static void start() {
+        notifier = new Notifier(FastLoop::run);
+        notifier.setName("FastLoop");
+        notifier.startPeriodic(period);
+        BootupLogger.BootupLog("Fast loop started at " + Math.round(1.0 / period) + "hz");
+    }
+
+    /** @return how many loops took longer than the period since boot */
+    public static long getOverrunCount() {
+        return overrunCount;
+    }
+
+    private static void run() {
+        if (!prioritySet) {
+            if (RobotBase.isReal() && !Threads.setCurrentThreadPriority(true, RT_PRIORITY)) {
+                DriverStation.reportWarning("Could not give the fast loop real-time priority", false);
+            }
+            prioritySet = true;
+        }
+        long startNs = System.nanoTime();
+        if (lastStartNs >= 0) {
+            periods.record(startNs - lastStartNs);
+        }
+        lastStartNs = startNs;
+
+        Runnable[] current = tasks;
+        for (int i = 0; i < current.length; i++) {
+            try {
+                current[i].run();
+            } catch (RuntimeException e) {
+                DriverStation.reportError("Fast loop task failed: " + e.getMessage(), e.getStackTrace());
+            }
+        }
+
+        long elapsed = System.nanoTime() - startNs;
+        durations.record(elapsed);
+        if (elapsed > period * 1e9) {
+            overrunCount++;
+        }
+        if (++loopsSinceSummary * period >= 1.0) {
+            loopsSinceSummary = 0;
+            LoopProfiler.summarize(durations, summary);
+            durationEntry.append(summary);
+            LoopProfiler.summarize(periods, summary);
+            periodEntry.append(summary);
+            durations.reset();
+            periods.reset();
+        }
+    }
+}
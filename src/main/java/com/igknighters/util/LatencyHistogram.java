@@ -0,0 +1,88 @@
+package com.igknighters.util;
+
+import java.util.Arrays;
+
+/**
+ * Fixed size log-linear histogram of nanosecond durations, in the style of HdrHistogram.
+ * <p>
+ * Every power of two range is split into 16 buckets so any recorded value is off
+ * by at most ~6%, which is plenty for finding tail latency. Recording never allocates.
+ */
+public class LatencyHistogram {
+    private static final int SUB_BITS = 5;
+    private static final int SUB_COUNT = 1 << SUB_BITS;
+    private static final int HALF_COUNT = SUB_COUNT / 2;
+    /** Covers up to 2^45ns, about 9 hours */
+    private static final int BUCKETS = SUB_COUNT + (45 - SUB_BITS) * HALF_COUNT;
+
+    private final long[] counts = new long[BUCKETS];
+    private long count = 0;
+    private long sum = 0;
+    private long max = 0;
+
+    private static int bucketOf(long nanos) {
+        if (nanos < SUB_COUNT) {
+            return (int) Math.max(nanos, 0);
+        }
+        int shift = 64 - Long.numberOfLeadingZeros(nanos) - SUB_BITS;
+        int top = (int) (nanos >>> shift);
+        return Math.min(SUB_COUNT + (shift - 1) * HALF_COUNT + (top - HALF_COUNT), BUCKETS - 1);
+    }
+
+    /** @return the largest value that lands in the bucket */
+    private static long bucketMax(int bucket) {
+        if (bucket < SUB_COUNT) {
+            return bucket;
+        }
+        int shift = (bucket - SUB_COUNT) / HALF_COUNT + 1;
+        long top = (bucket - SUB_COUNT) % HALF_COUNT + HALF_COUNT;
+        return ((top + 1) << shift) - 1;
+    }
+
+    public void record(long nanos) {
+        counts[bucketOf(nanos)]++;
+        count++;
+        sum += nanos;
+        if (nanos > max) {
+            max = nanos;
+        }
+    }
+
+    /**
+     * @param percentile 0 to 1
+     * @return the value at the percentile in nanoseconds, never more than {@link #getMax()}
+     */
+    public long getPercentile(double percentile) {
+        if (count == 0) {
+            return 0;
+        }
+        long target = Math.max(1, (long) Math.ceil(percentile * count));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts[i];
+            if (seen >= target) {
+                return Math.min(bucketMax(i), max);
+            }
+        }
+        return max;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public long getMax() {
+        return max;
+    }
+
+    public double getMean() {
+        return count == 0 ? 0.0 : (double) sum / count;
+    }
+
+    public void reset() {
+        Arrays.fill(counts, 0);
+        count = 0;
+        sum = 0;
+        max = 0;
+    }
+}
@@ -0,0 +1,202 @@
+package com.igknighters.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+
+import edu.wpi.first.util.datalog.StringLogEntry;
+import edu.wpi.first.wpilibj.DataLogManager;
+import edu.wpi.first.wpilibj.Timer;
+import edu.wpi.first.wpilibj2.command.Command;
+import edu.wpi.first.wpilibj2.command.CommandScheduler;
+
+/**
+ * Flags cycles where the robot loop and the {@link UtilPeriodic} callback together
+ * took longer than the robot period, and records what every {@link LoopProfiler}
+ * timer took in that cycle.
+ * <p>
+ * Each overrun is written to {@code Profiler/Overruns} in the datalog as one line of json
+ * <pre>{"cycle":812,"time":16.24,"totalMs":23.1,"periodMs":20.0,"timers":{"CommandScheduler":14.2,...}}</pre>
+ * and the last {@link #HISTORY} overruns are kept in memory, see {@link #getRecentOverruns()}.
+ * <p>
+ * Timers nest, so CommandScheduler includes every {@code <Subsystem>.periodic()}
+ * and TOTAL includes every periodic runnable.
+ * <p>
+ * Commands are timed through the scheduler's callbacks as {@code <Command>.initialize()},
+ * {@code <Command>.execute()} and {@code <Command>.end()}. A callback only fires after the
+ * command ran, so each of these is the time since the previous timer or callback, which
+ * also takes in button polling and anything else the scheduler did in between.
+ */
+public class LoopOverrunDetector {
+    public static final int HISTORY = 32;
+    /** Wraps the whole of TimedRobot.loopFunc */
+    public static final String loopFuncKey = "LoopFunc";
+
+    private static final int loopFuncTimer = LoopProfiler.register(loopFuncKey);
+    private static final int totalTimer = LoopProfiler.register(UtilPeriodic.totalKey);
+    private static final StringLogEntry logEntry = new StringLogEntry(DataLogManager.getLog(), "Profiler/Overruns");
+
+    private static final Overrun[] history = new Overrun[HISTORY];
+    private static long overrunCount = 0;
+    private static final StringBuilder json = new StringBuilder(512);
+    /** Timer ids per command name for initialize, execute and end */
+    private static final HashMap<String, int[]> commandTimers = new HashMap<>();
+
+    static {
+        for (int i = 0; i < HISTORY; i++) {
+            history[i] = new Overrun();
+        }
+        var scheduler = CommandScheduler.getInstance();
+        scheduler.onCommandInitialize(command -> LoopProfiler.recordSinceMark(commandTimers(command)[0]));
+        scheduler.onCommandExecute(command -> LoopProfiler.recordSinceMark(commandTimers(command)[1]));
+        scheduler.onCommandFinish(command -> LoopProfiler.recordSinceMark(commandTimers(command)[2]));
+    }
+
+    private static int[] commandTimers(Command command) {
+        String name = command.getName();
+        int[] ids = commandTimers.get(name);
+        if (ids == null) {
+            ids = new int[] {
+                    LoopProfiler.register(name + ".initialize()"),
+                    LoopProfiler.register(name + ".execute()"),
+                    LoopProfiler.register(name + ".end()") };
+            commandTimers.put(name, ids);
+        }
+        return ids;
+    }
+
+    /** One overrun cycle, only valid until {@link #HISTORY} more overruns happened */
+    public static class Overrun {
+        private long cycle;
+        private double timestamp;
+        private long totalNs;
+        private long periodNs;
+        private int[] timerIds = new int[16];
+        private long[] timerNs = new long[16];
+        private int timerCount;
+
+        private Overrun() {
+        }
+
+        private Overrun(Overrun other) {
+            cycle = other.cycle;
+            timestamp = other.timestamp;
+            totalNs = other.totalNs;
+            periodNs = other.periodNs;
+            timerIds = Arrays.copyOf(other.timerIds, other.timerCount);
+            timerNs = Arrays.copyOf(other.timerNs, other.timerCount);
+            timerCount = other.timerCount;
+        }
+
+        public long getCycle() {
+            return cycle;
+        }
+
+        /** FPGA time in seconds */
+        public double getTimestamp() {
+            return timestamp;
+        }
+
+        public double getTotalMs() {
+            return totalNs * 1e-6;
+        }
+
+        public double getPeriodMs() {
+            return periodNs * 1e-6;
+        }
+
+        public int getTimerCount() {
+            return timerCount;
+        }
+
+        public String getTimerName(int index) {
+            return LoopProfiler.getName(timerIds[index]);
+        }
+
+        public double getTimerMs(int index) {
+            return timerNs[index] * 1e-6;
+        }
+    }
+
+    /**
+     * Called by {@link UtilPeriodic} each cycle, after its own timers ended
+     *
+     * @param periodSeconds the robot period
+     */
+    public static void check(double periodSeconds) {
+        long cycle = LoopProfiler.getCycle();
+        long totalNs = 0;
+        if (LoopProfiler.getLastCycle(loopFuncTimer) == cycle) {
+            totalNs += LoopProfiler.getLast(loopFuncTimer);
+        }
+        if (LoopProfiler.getLastCycle(totalTimer) == cycle) {
+            totalNs += LoopProfiler.getLast(totalTimer);
+        }
+        long periodNs = (long) (periodSeconds * 1e9);
+        if (totalNs <= periodNs) {
+            return;
+        }
+
+        Overrun overrun = history[(int) (overrunCount % HISTORY)];
+        overrunCount++;
+        overrun.cycle = cycle;
+        overrun.timestamp = Timer.getFPGATimestamp();
+        overrun.totalNs = totalNs;
+        overrun.periodNs = periodNs;
+        int timers = LoopProfiler.getTimerCount();
+        if (overrun.timerIds.length < timers) {
+            overrun.timerIds = new int[timers];
+            overrun.timerNs = new long[timers];
+        }
+        overrun.timerCount = 0;
+        for (int id = 0; id < timers; id++) {
+            if (LoopProfiler.getLastCycle(id) == cycle) {
+                overrun.timerIds[overrun.timerCount] = id;
+                overrun.timerNs[overrun.timerCount] = LoopProfiler.getLast(id);
+                overrun.timerCount++;
+            }
+        }
+        logEntry.append(toJson(overrun));
+    }
+
+    private static String toJson(Overrun overrun) {
+        json.setLength(0);
+        json.append("{\"cycle\":").append(overrun.cycle)
+                .append(",\"time\":").append(overrun.timestamp)
+                .append(",\"totalMs\":").append(overrun.getTotalMs())
+                .append(",\"periodMs\":").append(overrun.getPeriodMs())
+                .append(",\"timers\":{");
+        for (int i = 0; i < overrun.timerCount; i++) {
+            if (i > 0) {
+                json.append(',');
+            }
+            json.append('"').append(overrun.getTimerName(i)).append("\":").append(overrun.getTimerMs(i));
+        }
+        return json.append("}}").toString();
+    }
+
+    /** @return how many overruns happened since boot */
+    public static long getOverrunCount() {
+        return overrunCount;
+    }
+
+    /** @return copies of the remembered overruns, oldest first */
+    public static List<Overrun> getRecentOverruns() {
+        int size = (int) Math.min(overrunCount, HISTORY);
+        List<Overrun> out = new ArrayList<>(size);
+        for (long i = overrunCount - size; i < overrunCount; i++) {
+            out.add(new Overrun(history[(int) (i % HISTORY)]));
+        }
+        return out;
+    }
+
+    /** Starts the loopFunc timer, see Robot.loopFunc */
+    public static void loopFuncStart() {
+        LoopProfiler.start(loopFuncTimer);
+    }
+
+    public static void loopFuncEnd() {
+        LoopProfiler.end(loopFuncTimer);
+    }
+}
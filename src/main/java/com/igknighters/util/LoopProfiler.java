@@ -0,0 +1,229 @@
+package com.igknighters.util;
+
+import java.util.Arrays;
+import java.util.HashMap;
+
+import com.igknighters.constants.ConstValues;
+import com.igknighters.util.logging.CachedPublisher;
+
+import edu.wpi.first.networktables.NetworkTable;
+import edu.wpi.first.networktables.NetworkTableInstance;
+import edu.wpi.first.util.datalog.DoubleArrayLogEntry;
+import edu.wpi.first.wpilibj.DataLogManager;
+import edu.wpi.first.wpilibj2.command.Command;
+import edu.wpi.first.wpilibj2.command.CommandScheduler;
+import edu.wpi.first.wpilibj2.command.Subsystem;
+
+/**
+ * Nanosecond timers for the robot loop with a latency histogram per timer.
+ * <p>
+ * Timers are registered once by name and then started/stopped by their id,
+ * which doesn't allocate or lock. Only use the timers from the robot thread.
+ * <p>
+ * Every {@link #SUMMARY_CYCLES} cycles each timer that ran writes
+ * {@code [p50, p95, p99, max, mean, count]} in milliseconds to
+ * {@code Profiler/<name>} in the datalog and the histograms are reset,
+ * in debug p50/p99/max also go to the {@code PeriodicTimes} table.
+ */
+public class LoopProfiler {
+    /** 1 second at the default period */
+    public static final int SUMMARY_CYCLES = 50;
+    private static final double NS_TO_MS = 1e-6;
+
+    private static final HashMap<String, Integer> ids = new HashMap<>();
+    private static String[] names = new String[16];
+    private static long[] starts = new long[16];
+    private static long[] lasts = new long[16];
+    private static long[] lastCycles = new long[16];
+    private static LatencyHistogram[] histograms = new LatencyHistogram[16];
+    private static DoubleArrayLogEntry[] logEntries = new DoubleArrayLogEntry[16];
+    private static CachedPublisher.OfDouble[][] ntPublishers = new CachedPublisher.OfDouble[16][];
+    private static int count = 0;
+
+    private static final double[] summary = new double[6];
+    private static int summaryCycle = 0;
+    private static long cycle = 0;
+    /** When a timer last started or ended, see {@link #recordSinceMark(int)} */
+    private static long markNs = 0;
+
+    private static final NetworkTable periodicTimesTable = NetworkTableInstance.getDefault().getTable("PeriodicTimes");
+    static {
+        if (ConstValues.DEBUG) {
+            periodicTimesTable.getEntry("_").setString("Times are measured in miliseconds");
+        }
+    }
+
+    /**
+     * Registering the same name twice returns the same id
+     *
+     * @return the id to pass to {@link #start(int)} and {@link #end(int)}
+     */
+    public static synchronized int register(String name) {
+        Integer existing = ids.get(name);
+        if (existing != null) {
+            return existing;
+        }
+        if (count == names.length) {
+            int size = count * 2;
+            names = Arrays.copyOf(names, size);
+            starts = Arrays.copyOf(starts, size);
+            lasts = Arrays.copyOf(lasts, size);
+            lastCycles = Arrays.copyOf(lastCycles, size);
+            histograms = Arrays.copyOf(histograms, size);
+            logEntries = Arrays.copyOf(logEntries, size);
+            ntPublishers = Arrays.copyOf(ntPublishers, size);
+        }
+        int id = count;
+        names[id] = name;
+        starts[id] = -1;
+        lastCycles[id] = -1;
+        histograms[id] = new LatencyHistogram();
+        logEntries[id] = new DoubleArrayLogEntry(DataLogManager.getLog(), "Profiler/" + name);
+        if (ConstValues.DEBUG) {
+            var table = periodicTimesTable.getSubTable(name);
+            ntPublishers[id] = new CachedPublisher.OfDouble[] {
+                    CachedPublisher.ofDouble(table, "p50"),
+                    CachedPublisher.ofDouble(table, "p99"),
+                    CachedPublisher.ofDouble(table, "max") };
+        }
+        ids.put(name, id);
+        count++;
+        return id;
+    }
+
+    public static void start(int id) {
+        long now = System.nanoTime();
+        starts[id] = now;
+        markNs = now;
+    }
+
+    /** Does nothing if the timer wasn't started */
+    public static void end(int id) {
+        long start = starts[id];
+        if (start < 0) {
+            return;
+        }
+        long now = System.nanoTime();
+        starts[id] = -1;
+        markNs = now;
+        record(id, now - start);
+    }
+
+    /**
+     * Records the time since any timer last started or ended, or since the last call to this,
+     * as one run of the timer. For code that can only be seen once it finished, like a
+     * scheduler callback, the same way WPILib's watchdog epochs work.
+     */
+    public static void recordSinceMark(int id) {
+        long now = System.nanoTime();
+        long elapsed = now - markNs;
+        markNs = now;
+        record(id, elapsed);
+    }
+
+    private static void record(int id, long elapsed) {
+        lasts[id] = elapsed;
+        lastCycles[id] = cycle;
+        histograms[id].record(elapsed);
+    }
+
+    /** @return the last recorded duration in nanoseconds */
+    public static long getLast(int id) {
+        return lasts[id];
+    }
+
+    /** @return the cycle the timer last ended in, -1 if it never has */
+    public static long getLastCycle(int id) {
+        return lastCycles[id];
+    }
+
+    /** @return the current cycle, advanced at the end of {@link #periodic()} */
+    public static long getCycle() {
+        return cycle;
+    }
+
+    /** @return how many timers are registered, ids are 0 until this */
+    public static int getTimerCount() {
+        return count;
+    }
+
+    public static LatencyHistogram getHistogram(int id) {
+        return histograms[id];
+    }
+
+    public static String getName(int id) {
+        return names[id];
+    }
+
+    /**
+     * Times the subsystem's periodic (and simulationPeriodic) as {@code <Name>.periodic()}.
+     * <p>
+     * The scheduler runs subsystems in the order they were registered, so the subsystem
+     * is re-registered between two marker subsystems that start and stop its timer.
+     * Unregistering drops the default command, so one set in the constructor is set again.
+     */
+    public static void profileSubsystem(Subsystem subsystem) {
+        int id = register(subsystem.getClass().getSimpleName() + ".periodic()");
+        var scheduler = CommandScheduler.getInstance();
+        Command defaultCommand = scheduler.getDefaultCommand(subsystem);
+        scheduler.unregisterSubsystem(subsystem);
+        scheduler.registerSubsystem(new TimerMarker(id, true));
+        scheduler.registerSubsystem(subsystem);
+        scheduler.registerSubsystem(new TimerMarker(id, false));
+        if (defaultCommand != null) {
+            scheduler.setDefaultCommand(subsystem, defaultCommand);
+        }
+    }
+
+    private static class TimerMarker implements Subsystem {
+        private final int id;
+        private final boolean isStart;
+
+        TimerMarker(int id, boolean isStart) {
+            this.id = id;
+            this.isStart = isStart;
+        }
+
+        @Override
+        public void periodic() {
+            if (isStart) {
+                start(id);
+            } else {
+                end(id);
+            }
+        }
+    }
+
+    /** Fills {@code out} with {@code [p50, p95, p99, max, mean, count]}, times in milliseconds */
+    static void summarize(LatencyHistogram histogram, double[] out) {
+        out[0] = histogram.getPercentile(0.50) * NS_TO_MS;
+        out[1] = histogram.getPercentile(0.95) * NS_TO_MS;
+        out[2] = histogram.getPercentile(0.99) * NS_TO_MS;
+        out[3] = histogram.getMax() * NS_TO_MS;
+        out[4] = histogram.getMean() * NS_TO_MS;
+        out[5] = histogram.getCount();
+    }
+
+    /** Called once a cycle by {@link UtilPeriodic} */
+    public static void periodic() {
+        cycle++;
+        if (++summaryCycle < SUMMARY_CYCLES) {
+            return;
+        }
+        summaryCycle = 0;
+        for (int i = 0; i < count; i++) {
+            LatencyHistogram histogram = histograms[i];
+            if (histogram.getCount() == 0) {
+                continue;
+            }
+            summarize(histogram, summary);
+            logEntries[i].append(summary);
+            if (ConstValues.DEBUG) {
+                ntPublishers[i][0].accept(summary[0]);
+                ntPublishers[i][1].accept(summary[2]);
+                ntPublishers[i][2].accept(summary[3]);
+            }
+            histogram.reset();
+        }
+    }
+}
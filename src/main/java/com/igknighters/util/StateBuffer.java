@@ -0,0 +1,73 @@
+package com.igknighters.util;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Hands a mutable state object from one thread to another without locks or allocation,
+ * for example setpoints from the command-based code to a {@link FastLoop} task
+ * and measurements back the other way.
+ * <p>
+ * Keeps three copies of the state, one the writer fills, one the reader holds and
+ * the latest published one in between, so neither side ever waits or sees a half
+ * written state. The reader always gets the newest published state, older ones
+ * that were never read are skipped.
+ * <p>
+ * There may be one writer thread and one reader thread per buffer.
+ *
+ * <pre>{@code
+ * StateBuffer<double[]> setpoints = new StateBuffer<>(() -> new double[2]);
+ * // 50hz
+ * double[] out = setpoints.write();
+ * out[0] = position;
+ * out[1] = velocity;
+ * setpoints.publish();
+ * // 200hz
+ * double[] in = setpoints.read();
+ * }</pre>
+ */
+public class StateBuffer<T> {
+    private static final int INDEX_MASK = 0b11;
+    private static final int FRESH_BIT = 0b100;
+
+    private final Object[] buffers = new Object[3];
+    /** Index of the middle buffer, with {@link #FRESH_BIT} set if it hasn't been read yet */
+    private final AtomicInteger middle = new AtomicInteger(1);
+    // each only touched by its own side
+    private int writeIndex = 0;
+    private int readIndex = 2;
+
+    public StateBuffer(Supplier<T> factory) {
+        for (int i = 0; i < buffers.length; i++) {
+            buffers[i] = factory.get();
+        }
+    }
+
+    /**
+     * Writer side, the returned object is only guaranteed to hold what was last
+     * written into this slot, not the last published state, so set every field.
+     */
+    @SuppressWarnings("unchecked")
+    public T write() {
+        return (T) buffers[writeIndex];
+    }
+
+    /** Writer side, makes the object from {@link #write()} visible to the reader */
+    public void publish() {
+        writeIndex = middle.getAndSet(writeIndex | FRESH_BIT) & INDEX_MASK;
+    }
+
+    /** Reader side, the newest published state, stays valid until the next read */
+    @SuppressWarnings("unchecked")
+    public T read() {
+        if ((middle.get() & FRESH_BIT) != 0) {
+            readIndex = middle.getAndSet(readIndex) & INDEX_MASK;
+        }
+        return (T) buffers[readIndex];
+    }
+
+    /** Reader side, whether something was published since the last {@link #read()} */
+    public boolean hasUpdate() {
+        return (middle.get() & FRESH_BIT) != 0;
+    }
+}
@@ -0,0 +1,242 @@
+package com.igknighters.util;
+
+import java.util.Arrays;
+import java.util.HashMap;
+
+import com.igknighters.util.logging.BootupLogger;
+
+import edu.wpi.first.wpilibj.TimedRobot;
+
+/**
+ * Cooperative scheduler for work that doesn't belong to a subsystem.
+ * <p>
+ * Every task has a period, a {@link Priority} and optionally a cpu budget. Each cycle due tasks
+ * run highest priority first, tasks deferred from earlier cycles before ones due this cycle,
+ * then in the order they were added. Once the cycle has used up {@link #setLoopBudget(double)}
+ * any task that doesn't fit in what's left is deferred to the next cycle instead of
+ * stretching the loop, {@link Priority#Critical} tasks are never deferred and a task
+ * is never deferred for longer than its own period.
+ * <p>
+ * A task's cost is its declared budget, or a running average of its measured time if it has none.
+ */
+public class UtilPeriodic {
+    public static final String robotLoopKey = "RobotLoop";
+    public static final String totalKey = "TOTAL";
+
+    public enum Priority {
+        /** Runs every time it's due, no matter the budget */
+        Critical,
+        High,
+        Normal,
+        Low
+    }
+
+    private static class PeriodicTask {
+        final int timerId;
+        final int order;
+        Runnable runnable;
+        Priority priority;
+        /** 0 if the period was given in cycles */
+        double periodSeconds;
+        int periodCycles;
+        int phase;
+        long budgetNs;
+        long measuredNs = 0;
+        long nextDue;
+
+        PeriodicTask(String key, int order) {
+            this.order = order;
+            this.timerId = LoopProfiler.register(key);
+        }
+
+        long estimateNs() {
+            return budgetNs > 0 ? budgetNs : measuredNs;
+        }
+    }
+
+    private static final HashMap<String, PeriodicTask> tasksByKey = new HashMap<>();
+    /** Sorted by priority then insertion order */
+    private static PeriodicTask[] tasks = new PeriodicTask[8];
+    private static int taskCount = 0;
+    private static final HashMap<Integer, Integer> phaseCounters = new HashMap<>();
+    private static final int totalTimerId = LoopProfiler.register(totalKey);
+    private static double period = TimedRobot.kDefaultPeriod;
+    private static long loopBudgetNs = (long) (TimedRobot.kDefaultPeriod / 4 * 1e9);
+    private static long cycle = 0;
+    private static long deferredCount = 0;
+
+    public static void addCallback(TimedRobot robot) {
+        period = robot.getPeriod();
+        for (int i = 0; i < taskCount; i++) {
+            if (tasks[i].periodSeconds > 0) {
+                setPeriod(tasks[i], toCycles(tasks[i].periodSeconds));
+            }
+        }
+        robot.addPeriodic(UtilPeriodic::periodic, robot.getPeriod(), robot.getPeriod() / 4);
+        BootupLogger.BootupLog("Periodic Callbacks Added");
+    }
+
+    /** How long the deferrable tasks together may take each cycle, defaults to a quarter of the period */
+    public static void setLoopBudget(double seconds) {
+        loopBudgetNs = (long) (seconds * 1e9);
+    }
+
+    /** @return how many times a task was pushed to a later cycle since boot */
+    public static long getDeferredCount() {
+        return deferredCount;
+    }
+
+    public static void periodic() {
+        LoopProfiler.start(totalTimerId);
+        long startNs = System.nanoTime();
+        int groupStart = 0;
+        while (groupStart < taskCount) {
+            Priority priority = tasks[groupStart].priority;
+            int groupEnd = groupStart;
+            while (groupEnd < taskCount && tasks[groupEnd].priority == priority) {
+                groupEnd++;
+            }
+            for (int i = groupStart; i < groupEnd; i++) {
+                if (tasks[i].nextDue < cycle) {
+                    runOrDefer(tasks[i], startNs);
+                }
+            }
+            for (int i = groupStart; i < groupEnd; i++) {
+                if (tasks[i].nextDue == cycle) {
+                    runOrDefer(tasks[i], startNs);
+                }
+            }
+            groupStart = groupEnd;
+        }
+        cycle++;
+        LoopProfiler.end(totalTimerId);
+        LoopOverrunDetector.check(period);
+        LoopProfiler.periodic();
+    }
+
+    private static void runOrDefer(PeriodicTask task, long startNs) {
+        boolean mustRun = task.priority == Priority.Critical || cycle - task.nextDue >= task.periodCycles;
+        if (!mustRun && System.nanoTime() - startNs + task.estimateNs() > loopBudgetNs) {
+            deferredCount++;
+            return;
+        }
+        LoopProfiler.start(task.timerId);
+        task.runnable.run();
+        LoopProfiler.end(task.timerId);
+        task.measuredNs += (LoopProfiler.getLast(task.timerId) - task.measuredNs) / 8;
+        task.nextDue += task.periodCycles;
+        if (task.nextDue <= cycle) {
+            task.nextDue = cycle + task.periodCycles;
+        }
+    }
+
+    private static int toCycles(double periodSeconds) {
+        return (int) Math.max(1, Math.round(periodSeconds / period));
+    }
+
+    private static void setPeriod(PeriodicTask task, int periodCycles) {
+        task.periodCycles = periodCycles;
+        task.nextDue = cycle + task.phase % periodCycles;
+    }
+
+    // --period timing--//
+
+    /**
+     * Looks the timer up by name every call,
+     * keep the id from {@link LoopProfiler#register(String)} in hot code instead
+     */
+    public static void startTimer(String key) {
+        LoopProfiler.start(LoopProfiler.register(key));
+    }
+
+    public static void endTimer(String key) {
+        LoopProfiler.end(LoopProfiler.register(key));
+    }
+
+    // --adding periodics--//
+
+    /**
+     * Adding a task with a key that already exists replaces it
+     *
+     * @param periodCycles  how many cycles between runs, tasks with the same period are spread across cycles
+     * @param periodSeconds used instead of periodCycles if above 0, rounded to whole cycles
+     * @param budgetSeconds the expected cost, 0 to use the measured cost
+     */
+    private static void addTask(String key, Runnable runnable, int periodCycles, double periodSeconds,
+            Priority priority, double budgetSeconds) {
+        PeriodicTask task = tasksByKey.get(key);
+        if (task == null) {
+            task = new PeriodicTask(key, tasksByKey.size());
+            tasksByKey.put(key, task);
+        } else {
+            removeTask(task);
+        }
+        task.runnable = runnable;
+        task.priority = priority;
+        task.periodSeconds = periodSeconds;
+        task.budgetNs = (long) (budgetSeconds * 1e9);
+        int cycles = periodSeconds > 0 ? toCycles(periodSeconds) : Math.max(1, periodCycles);
+        task.phase = phaseCounters.getOrDefault(cycles, 0);
+        phaseCounters.put(cycles, task.phase + 1);
+        setPeriod(task, cycles);
+        insertTask(task);
+    }
+
+    private static void insertTask(PeriodicTask task) {
+        if (taskCount == tasks.length) {
+            tasks = Arrays.copyOf(tasks, taskCount * 2);
+        }
+        int index = taskCount;
+        while (index > 0 && (tasks[index - 1].priority.compareTo(task.priority) > 0
+                || (tasks[index - 1].priority == task.priority && tasks[index - 1].order > task.order))) {
+            tasks[index] = tasks[index - 1];
+            index--;
+        }
+        tasks[index] = task;
+        taskCount++;
+    }
+
+    private static void removeTask(PeriodicTask task) {
+        for (int i = 0; i < taskCount; i++) {
+            if (tasks[i] == task) {
+                System.arraycopy(tasks, i + 1, tasks, i, taskCount - i - 1);
+                tasks[--taskCount] = null;
+                return;
+            }
+        }
+    }
+
+    /** Runs every cycle and is never deferred */
+    public static void addPeriodicRunnable(String key, Runnable runnable) {
+        addTask(key, runnable, 1, 0, Priority.Critical, 0);
+    }
+
+    /** Runs every cycle, deferred under load unless it is {@link Priority#Critical} */
+    public static void addPeriodicRunnable(String key, Runnable runnable, Priority priority) {
+        addTask(key, runnable, 1, 0, priority, 0);
+    }
+
+    /**
+     * @param periodSeconds how often to run, rounded to whole robot cycles
+     * @param budgetSeconds how long a run is expected to take, 0 to use the measured time
+     */
+    public static void addPeriodicRunnable(String key, Runnable runnable, double periodSeconds, Priority priority,
+            double budgetSeconds) {
+        addTask(key, runnable, 1, periodSeconds, priority, budgetSeconds);
+    }
+
+    public enum Frequency {
+        EveryCycle(1), EveryOtherCycle(2), Every3Cycles(3), Every5Cycles(5), Every10Cycles(10);
+
+        public final int value;
+
+        private Frequency(int value) {
+            this.value = value;
+        }
+    }
+
+    /** Runs at {@link Priority#Normal} */
+    public static void addPeriodicRunnable(String key, Runnable runnable, Frequency frequency) {
+        addTask(key, runnable, frequency.value, 0, Priority.Normal, 0);
+    }
+}
@@ -0,0 +1,60 @@
+package com.igknighters.util.hardware;
+
+import com.ctre.phoenixpro.StatusCode;
+import com.ctre.phoenixpro.StatusSignalValue;
+
+/**
+ * The last sample of a status signal, refreshed once a loop by {@link StatusSignalRegistry}.
+ * <p>
+ * Reading never touches CAN or blocks, only read from the robot thread.
+ */
+public class CachedSignal {
+    private final StatusSignalValue<Double> signal;
+    private double value = 0.0;
+    private double timestamp = 0.0;
+    private boolean ok = false;
+
+    CachedSignal(StatusSignalValue<Double> signal) {
+        this.signal = signal;
+    }
+
+    /** Called after the batched refresh */
+    void update() {
+        ok = signal.getError() == StatusCode.OK;
+        if (ok) {
+            value = signal.getValue();
+            timestamp = signal.getTimestamp().getTime();
+        }
+    }
+
+    /** @return the last good value, 0 if there never was one */
+    public double getValue() {
+        return value;
+    }
+
+    /** @return when the last good value was sampled in seconds */
+    public double getTimestamp() {
+        return timestamp;
+    }
+
+    /**
+     * Fills the sample with the last good value times {@code scale},
+     * clears it if there never was one
+     */
+    void sample(SignalSample out, double scale) {
+        if (timestamp == 0.0) {
+            out.clear();
+        } else {
+            out.set(value * scale, timestamp);
+        }
+    }
+
+    /** @return whether the last refresh got a value */
+    public boolean isOk() {
+        return ok;
+    }
+
+    public StatusSignalValue<Double> getSignal() {
+        return signal;
+    }
+}
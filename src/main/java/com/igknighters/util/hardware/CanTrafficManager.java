@@ -0,0 +1,236 @@
+package com.igknighters.util.hardware;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.function.Supplier;
+
+import com.ctre.phoenixpro.StatusCode;
+import com.ctre.phoenixpro.controls.ControlRequest;
+import com.igknighters.util.UtilPeriodic;
+import com.igknighters.util.UtilPeriodic.Priority;
+import com.igknighters.util.hardware.OptionalHardwareUtil.HardwareSuccessResponse;
+import com.igknighters.util.logging.DataLogger;
+
+import edu.wpi.first.wpilibj.DriverStation;
+import edu.wpi.first.wpilibj.Timer;
+
+/**
+ * Sits between the hardware wrappers and the CAN bus.
+ * <ul>
+ * <li>Control frames identical to the last one sent are dropped, Phoenix already
+ * resends the active request on its own at the request's update rate.</li>
+ * <li>Config writes go out at most once every {@link #setConfigInterval config interval}
+ * per device, writes that come in faster are queued and only the newest one per key is sent.</li>
+ * <li>Bus utilization is estimated per device and for the whole bus and logged to
+ * {@code CAN/<device>/utilization}, {@code CAN/<device>/framesPerSecond} and
+ * {@code CAN/BusUtilization} (percent of a 1Mbit/s bus).</li>
+ * </ul>
+ * The estimate counts every status signal as its own frame and every config write as
+ * {@link #FRAMES_PER_CONFIG} frames, so it errs on the high side.
+ */
+public class CanTrafficManager {
+    public static final double BUS_BITS_PER_SECOND = 1_000_000.0;
+    /** Extended id frame with 8 data bytes, including worst case bit stuffing */
+    public static final double BITS_PER_FRAME = 160.0;
+    /** A config apply is a request and a response at least */
+    public static final double FRAMES_PER_CONFIG = 2.0;
+    public static final double kDefaultConfigInterval = 0.1;
+
+    private static final ArrayList<Device> devices = new ArrayList<>();
+    private static double configInterval = kDefaultConfigInterval;
+    private static double lastSampleTime = -1;
+    private static double busUtilization = 0.0;
+
+    static {
+        UtilPeriodic.addPeriodicRunnable("CanTraffic", CanTrafficManager::periodic, Priority.Normal);
+        DataLogger.addDouble("CAN/BusUtilization", () -> busUtilization * 100.0, 0.1);
+    }
+
+    /** Traffic bookkeeping for one device, get one from {@link CanTrafficManager#register} */
+    public static class Device {
+        private final String name;
+        private double statusHz = 0.0;
+
+        private ControlRequest lastRequest = null;
+        private boolean lastRequestOk = false;
+        private double controlHz = 0.0;
+
+        private double lastConfigTime = Double.NEGATIVE_INFINITY;
+        private final LinkedHashMap<String, Supplier<StatusCode>> pendingConfigs = new LinkedHashMap<>();
+
+        // counted since the last sample
+        private int controlFrames = 0;
+        private int configWrites = 0;
+        private long coalescedFrames = 0;
+        private long deferredConfigs = 0;
+
+        private double framesPerSecond = 0.0;
+        private double utilization = 0.0;
+
+        private Device(String name) {
+            this.name = name;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        /** Adds a periodic status frame to the estimate */
+        public void addStatusSignal(double hz) {
+            statusHz += hz;
+        }
+
+        /** Changes the estimate when a status signal's rate changes */
+        public void updateStatusSignal(double oldHz, double newHz) {
+            statusHz = Math.max(0.0, statusHz - oldHz + newHz);
+        }
+
+        /**
+         * Whether sending the request can be skipped, true when it's the same object as the
+         * last request, none of its fields changed and the last send succeeded
+         *
+         * @param changed whether the caller changed any field of the request since the last send
+         */
+        public boolean isRedundant(ControlRequest request, boolean changed) {
+            if (!changed && request == lastRequest && lastRequestOk) {
+                coalescedFrames++;
+                return true;
+            }
+            return false;
+        }
+
+        /**
+         * Records a control frame that was sent
+         *
+         * @param updateHz the rate Phoenix resends the request at
+         */
+        public void controlSent(ControlRequest request, StatusCode status, double updateHz) {
+            lastRequest = request;
+            lastRequestOk = !status.isError();
+            controlHz = updateHz;
+            controlFrames++;
+        }
+
+        /** Forgets the last control request, for when something else may have sent one */
+        public void invalidateControl() {
+            lastRequest = null;
+        }
+
+        /**
+         * Runs the write now if the device hasn't had a config write within the config interval,
+         * otherwise queues it. Queueing a write with the same key as a queued one replaces it.
+         *
+         * @return the write's result if it ran, success if it was queued
+         */
+        public HardwareSuccessResponse writeConfig(String key, Supplier<StatusCode> write) {
+            double now = Timer.getFPGATimestamp();
+            if (pendingConfigs.isEmpty() && now - lastConfigTime >= configInterval) {
+                return HardwareSuccessResponse.from(runConfig(key, write, now));
+            }
+            if (pendingConfigs.put(key, write) != null) {
+                coalescedFrames++;
+            }
+            deferredConfigs++;
+            return HardwareSuccessResponse.success();
+        }
+
+        private StatusCode runConfig(String key, Supplier<StatusCode> write, double now) {
+            lastConfigTime = now;
+            configWrites++;
+            var status = write.get();
+            if (status.isError()) {
+                DriverStation.reportWarning("Config write " + key + " failed on " + name + ": " + status.getName(),
+                        false);
+            }
+            return status;
+        }
+
+        private void flushConfig(double now) {
+            if (pendingConfigs.isEmpty() || now - lastConfigTime < configInterval) {
+                return;
+            }
+            var iter = pendingConfigs.entrySet().iterator();
+            var next = iter.next();
+            iter.remove();
+            runConfig(next.getKey(), next.getValue(), now);
+        }
+
+        private void sample(double elapsed) {
+            double explicitFrames = controlFrames + configWrites * FRAMES_PER_CONFIG;
+            framesPerSecond = statusHz + (lastRequest != null ? controlHz : 0.0) + explicitFrames / elapsed;
+            utilization = framesPerSecond * BITS_PER_FRAME / BUS_BITS_PER_SECOND;
+            controlFrames = 0;
+            configWrites = 0;
+        }
+
+        public boolean hasPendingConfig() {
+            return !pendingConfigs.isEmpty();
+        }
+
+        /** @return estimated fraction of the bus this device uses, 0 to 1 */
+        public double getUtilization() {
+            return utilization;
+        }
+
+        public double getFramesPerSecond() {
+            return framesPerSecond;
+        }
+
+        /** @return control frames and config writes that were dropped as redundant since boot */
+        public long getCoalescedCount() {
+            return coalescedFrames;
+        }
+
+        /** @return config writes that had to wait for the config interval since boot */
+        public long getDeferredConfigCount() {
+            return deferredConfigs;
+        }
+    }
+
+    /**
+     * Registers a device and starts logging its traffic,
+     * only call from the robot thread
+     *
+     * @param name unique name for the device, used in the log entry names
+     */
+    public static Device register(String name) {
+        var device = new Device(name);
+        devices.add(device);
+        DataLogger.addDouble("CAN/" + name + "/utilization", () -> device.utilization * 100.0, 0.1);
+        DataLogger.addDouble("CAN/" + name + "/framesPerSecond", () -> device.framesPerSecond, 1.0);
+        return device;
+    }
+
+    /** How long a device has to wait between config writes, starts as {@link #kDefaultConfigInterval} */
+    public static void setConfigInterval(double seconds) {
+        configInterval = Math.max(0.0, seconds);
+    }
+
+    /** @return estimated fraction of the bus in use, 0 to 1 */
+    public static double getBusUtilization() {
+        return busUtilization;
+    }
+
+    private static void periodic() {
+        double now = Timer.getFPGATimestamp();
+        for (int i = 0; i < devices.size(); i++) {
+            devices.get(i).flushConfig(now);
+        }
+        if (lastSampleTime < 0) {
+            lastSampleTime = now;
+            return;
+        }
+        double elapsed = now - lastSampleTime;
+        if (elapsed < 1.0) {
+            return;
+        }
+        lastSampleTime = now;
+        double total = 0.0;
+        for (int i = 0; i < devices.size(); i++) {
+            var device = devices.get(i);
+            device.sample(elapsed);
+            total += device.utilization;
+        }
+        busUtilization = total;
+    }
+}
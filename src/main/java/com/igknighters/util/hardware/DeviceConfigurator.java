@@ -0,0 +1,228 @@
+package com.igknighters.util.hardware;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import com.ctre.phoenixpro.StatusCode;
+import com.igknighters.util.logging.BootupLogger;
+
+import edu.wpi.first.wpilibj.DriverStation;
+
+/**
+ * Configures devices on a small worker pool so startup doesn't wait on every
+ * device's config round trips one after another.
+ * <p>
+ * A job first reads back what's on the device and skips the write if it already matches,
+ * otherwise it applies the config, retrying up to {@link #kMaxAttempts} times while the apply
+ * returns an error, and reads it back once to verify. {@link #awaitAll(double)} is called at
+ * the end of robotInit and reports how every job went, jobs submitted after that run synchronously.
+ * <p>
+ * Config changes the wrappers make after startup without blocking the robot thread run on
+ * {@link #background()}, one at a time.
+ */
+public class DeviceConfigurator {
+    public static final int kMaxAttempts = 3;
+    public static final int kWorkers = 4;
+    public static final double kDefaultTimeout = 10.0;
+    /** Devices keep some values as floats or fixed point, so they don't read back exactly */
+    public static final double kAbsoluteTolerance = 5e-4;
+    public static final double kRelativeTolerance = 1e-3;
+
+    public enum Result {
+        /** The device already had the config */
+        Skipped,
+        /** Applied and read back matching */
+        Applied,
+        /** Applied but reading it back failed or didn't match */
+        Unverified,
+        Failed
+    }
+
+    private static ExecutorService pool = Executors.newFixedThreadPool(kWorkers, new WorkerFactory());
+    private static final ArrayList<Job> jobs = new ArrayList<>();
+    private static final ExecutorService background = Executors.newSingleThreadExecutor(r -> {
+        var thread = new Thread(r, "DeviceConfig-Background");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private static class WorkerFactory implements ThreadFactory {
+        private final AtomicInteger count = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable r) {
+            var thread = new Thread(r, "DeviceConfig-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+
+    private static class Job {
+        final String name;
+        final CompletableFuture<Result> future;
+
+        Job(String name, CompletableFuture<Result> future) {
+            this.name = name;
+            this.future = future;
+        }
+    }
+
+    /** @return the thread config changes made while the robot runs are done on, never shut down */
+    static Executor background() {
+        return background;
+    }
+
+    /**
+     * Queues a config job
+     *
+     * @param name the device, used in reports
+     * @param readBack reads the device's config and compares it with the desired one using
+     *            {@link #matches(Object, Object)}, null if reading failed,
+     *            pass null to always apply and skip verifying
+     * @param apply writes the config
+     * @param onDone runs on the worker after the job finished without failing, may be null
+     * @return completes with how the job went
+     */
+    static CompletableFuture<Result> submit(String name, Supplier<Boolean> readBack,
+            Supplier<StatusCode> apply, Runnable onDone) {
+        Supplier<Result> task = () -> {
+            var result = run(name, readBack, apply);
+            if (result != Result.Failed && onDone != null) {
+                onDone.run();
+            }
+            return result;
+        };
+        CompletableFuture<Result> future;
+        synchronized (DeviceConfigurator.class) {
+            if (pool == null) {
+                future = CompletableFuture.completedFuture(task.get());
+                report(name, future.join());
+                return future;
+            }
+            future = CompletableFuture.supplyAsync(task, pool);
+            jobs.add(new Job(name, future));
+        }
+        return future;
+    }
+
+    private static Result run(String name, Supplier<Boolean> readBack, Supplier<StatusCode> apply) {
+        if (readBack != null && Boolean.TRUE.equals(readBack.get())) {
+            return Result.Skipped;
+        }
+        StatusCode status = StatusCode.OK;
+        for (int attempt = 1; attempt <= kMaxAttempts; attempt++) {
+            status = apply.get();
+            if (status.isError()) {
+                continue;
+            }
+            // the device took it, applying again wouldn't read back any different
+            if (readBack == null || Boolean.TRUE.equals(readBack.get())) {
+                return Result.Applied;
+            }
+            return Result.Unverified;
+        }
+        DriverStation.reportError("Failed to configure " + name + ": " + status.getName(), false);
+        return Result.Failed;
+    }
+
+    /**
+     * Compares two configs field by field through their public fields, doubles
+     * within the tolerances of each other count as equal
+     */
+    static boolean matches(Object desired, Object actual) {
+        if (desired == actual) {
+            return true;
+        }
+        if (desired == null || actual == null || desired.getClass() != actual.getClass()) {
+            return false;
+        }
+        if (desired instanceof Double || desired instanceof Float) {
+            double a = ((Number) desired).doubleValue();
+            double b = ((Number) actual).doubleValue();
+            return Math.abs(a - b) <= kAbsoluteTolerance + kRelativeTolerance * Math.max(Math.abs(a), Math.abs(b));
+        }
+        if (desired instanceof Number || desired instanceof Boolean || desired instanceof String
+                || desired instanceof Enum) {
+            return desired.equals(actual);
+        }
+        for (Field field : desired.getClass().getFields()) {
+            if (Modifier.isStatic(field.getModifiers())) {
+                continue;
+            }
+            try {
+                if (!matches(field.get(desired), field.get(actual))) {
+                    return false;
+                }
+            } catch (IllegalAccessException e) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static void report(String name, Result result) {
+        switch (result) {
+            case Failed:
+                // already reported with the status
+                break;
+            case Unverified:
+                DriverStation.reportWarning("Config on " + name + " could not be verified", false);
+                break;
+            default:
+                BootupLogger.BootupLog(name + " config " + result.name().toLowerCase());
+                break;
+        }
+    }
+
+    /**
+     * Waits for every queued job, reports the results and shuts the pool down,
+     * later jobs run synchronously
+     *
+     * @param timeoutSeconds how long to wait for all jobs together
+     * @return whether every job finished without failing in time
+     */
+    public static synchronized boolean awaitAll(double timeoutSeconds) {
+        if (pool == null) {
+            return true;
+        }
+        long deadline = System.nanoTime() + (long) (timeoutSeconds * 1e9);
+        boolean ok = true;
+        int[] counts = new int[Result.values().length];
+        for (var job : jobs) {
+            Result result;
+            try {
+                result = job.future.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+            } catch (TimeoutException e) {
+                DriverStation.reportError("Configuring " + job.name + " timed out", false);
+                ok = false;
+                continue;
+            } catch (Exception e) {
+                DriverStation.reportError("Configuring " + job.name + " threw " + e, false);
+                ok = false;
+                continue;
+            }
+            report(job.name, result);
+            counts[result.ordinal()]++;
+            ok &= result != Result.Failed;
+        }
+        BootupLogger.BootupLog("Configured " + jobs.size() + " devices: "
+                + counts[Result.Applied.ordinal()] + " applied, "
+                + counts[Result.Skipped.ordinal()] + " skipped, "
+                + counts[Result.Unverified.ordinal()] + " unverified, "
+                + counts[Result.Failed.ordinal()] + " failed");
+        jobs.clear();
+        pool.shutdown();
+        pool = null;
+        return ok;
+    }
+}
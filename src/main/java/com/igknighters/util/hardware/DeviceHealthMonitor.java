@@ -0,0 +1,240 @@
+package com.igknighters.util.hardware;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Consumer;
+
+import com.ctre.phoenixpro.BaseStatusSignalValue;
+import com.ctre.phoenixpro.StatusCode;
+import com.ctre.phoenixpro.StatusSignalValue;
+import com.igknighters.util.UtilPeriodic;
+import com.igknighters.util.UtilPeriodic.Priority;
+import com.igknighters.util.logging.DataLogger;
+import com.igknighters.util.logging.DataLogger.AppendMode;
+
+import edu.wpi.first.networktables.NetworkTable;
+import edu.wpi.first.networktables.NetworkTableEntry;
+import edu.wpi.first.networktables.NetworkTableInstance;
+import edu.wpi.first.util.datalog.StringLogEntry;
+import edu.wpi.first.wpilibj.DataLogManager;
+import edu.wpi.first.wpilibj.DriverStation;
+import edu.wpi.first.wpilibj.Timer;
+
+/**
+ * Tracks every hardware wrapper that gets constructed and polls its fault, sticky fault
+ * and connection state every {@link #kPollPeriod} seconds at {@link Priority#Low}.
+ * <p>
+ * Each device gets one string in the {@code DeviceHealth} table ({@code OK}, {@code DISABLED},
+ * {@code DISCONNECTED} or {@code FAULT 0x..}) and {@code DeviceHealth/AllConnected} says whether
+ * every enabled device is on the bus. The datalog gets {@code Health/<device>/connected},
+ * {@code faults} and {@code stickyFaults} on change, and {@code Health/Events} gets a line
+ * whenever a device drops off, comes back or raises a new fault.
+ * <p>
+ * A device counts as dropped off once its fault signal failed to arrive
+ * {@link #kDisconnectPolls} polls in a row.
+ */
+public class DeviceHealthMonitor {
+    public static final double kPollPeriod = 0.25;
+    public static final int kDisconnectPolls = 2;
+
+    private static final ArrayList<DeviceHealth> devices = new ArrayList<>();
+    private static final ArrayList<Consumer<DeviceHealth>> disconnectListeners = new ArrayList<>();
+    private static BaseStatusSignalValue[] signals = new BaseStatusSignalValue[0];
+
+    private static final NetworkTable table = NetworkTableInstance.getDefault().getTable("DeviceHealth");
+    private static final NetworkTableEntry allConnectedEntry = table.getEntry("AllConnected");
+    private static final StringLogEntry eventLog = new StringLogEntry(DataLogManager.getLog(), "Health/Events");
+    private static boolean allConnected = true;
+
+    static {
+        UtilPeriodic.addPeriodicRunnable("DeviceHealth", DeviceHealthMonitor::poll, kPollPeriod, Priority.Low, 0);
+        allConnectedEntry.setBoolean(true);
+    }
+
+    /** The health of one device as of the last poll */
+    public static class DeviceHealth {
+        private final String name;
+        private final StatusSignalValue<Integer> faultSignal;
+        private final StatusSignalValue<Integer> stickyFaultSignal;
+        private final NetworkTableEntry tableEntry;
+        private String status = "";
+
+        private boolean connected;
+        private int missedPolls = 0;
+        private int faults = 0;
+        private int stickyFaults = 0;
+        private double lastSeen = 0.0;
+        private int dropCount = 0;
+
+        private DeviceHealth(String name, StatusSignalValue<Integer> faultSignal,
+                StatusSignalValue<Integer> stickyFaultSignal) {
+            this.name = name;
+            this.faultSignal = faultSignal;
+            this.stickyFaultSignal = stickyFaultSignal;
+            this.connected = isEnabled();
+            this.tableEntry = table.getEntry(name);
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        /** @return false for wrappers constructed without hardware */
+        public boolean isEnabled() {
+            return faultSignal != null;
+        }
+
+        public boolean isConnected() {
+            return connected;
+        }
+
+        /** @return the active fault bits, see the device's fault field docs */
+        public int getFaults() {
+            return faults;
+        }
+
+        public int getStickyFaults() {
+            return stickyFaults;
+        }
+
+        /** @return FPGA time of the last poll the device answered */
+        public double getLastSeen() {
+            return lastSeen;
+        }
+
+        /** @return how many times the device dropped off since boot */
+        public int getDropCount() {
+            return dropCount;
+        }
+
+        private void poll(double now) {
+            boolean answered = faultSignal.getError() == StatusCode.OK;
+            if (answered) {
+                missedPolls = 0;
+                lastSeen = now;
+                int newFaults = faultSignal.getValue();
+                if ((newFaults & ~faults) != 0) {
+                    event(name + " raised fault 0x" + Integer.toHexString(newFaults), false);
+                }
+                faults = newFaults;
+                if (stickyFaultSignal.getError() == StatusCode.OK) {
+                    stickyFaults = stickyFaultSignal.getValue();
+                }
+                if (!connected) {
+                    connected = true;
+                    event(name + " is back on the bus", false);
+                }
+            } else if (++missedPolls >= kDisconnectPolls && connected) {
+                connected = false;
+                dropCount++;
+                event(name + " dropped off the bus", true);
+                for (int i = 0; i < disconnectListeners.size(); i++) {
+                    disconnectListeners.get(i).accept(this);
+                }
+            }
+            publishStatus();
+        }
+
+        private void publishStatus() {
+            String newStatus;
+            if (!isEnabled()) {
+                newStatus = "DISABLED";
+            } else if (!connected) {
+                newStatus = "DISCONNECTED";
+            } else if (faults != 0) {
+                newStatus = "FAULT 0x" + Integer.toHexString(faults);
+            } else {
+                newStatus = "OK";
+            }
+            if (!newStatus.equals(status)) {
+                status = newStatus;
+                tableEntry.setString(status);
+            }
+        }
+
+        @Override
+        public String toString() {
+            return name + ": " + status;
+        }
+    }
+
+    /**
+     * Tracks the device, only call from the robot thread.
+     * Registering a name again replaces the old entry, for wrappers that get hardware later.
+     *
+     * @param faultSignal null if the wrapper has no hardware
+     * @param stickyFaultSignal null if the wrapper has no hardware
+     */
+    static DeviceHealth register(String name, StatusSignalValue<Integer> faultSignal,
+            StatusSignalValue<Integer> stickyFaultSignal) {
+        var device = new DeviceHealth(name, faultSignal, stickyFaultSignal);
+        int existing = -1;
+        for (int i = 0; i < devices.size(); i++) {
+            if (devices.get(i).name.equals(name)) {
+                existing = i;
+            }
+        }
+        if (existing >= 0) {
+            devices.set(existing, device);
+        } else {
+            devices.add(device);
+        }
+        device.publishStatus();
+        if (device.isEnabled()) {
+            int size = signals.length;
+            signals = Arrays.copyOf(signals, size + 2);
+            signals[size] = faultSignal;
+            signals[size + 1] = stickyFaultSignal;
+            DataLogger.addBoolean("Health/" + name + "/connected", device::isConnected, AppendMode.OnChange);
+            DataLogger.addInteger("Health/" + name + "/faults", device::getFaults, AppendMode.OnChange);
+            DataLogger.addInteger("Health/" + name + "/stickyFaults", device::getStickyFaults, AppendMode.OnChange);
+        }
+        return device;
+    }
+
+    /** Called with the device whenever one drops off the bus, on the robot thread */
+    public static void addDisconnectListener(Consumer<DeviceHealth> listener) {
+        disconnectListeners.add(listener);
+    }
+
+    /** @return every device constructed so far, including ones without hardware */
+    public static List<DeviceHealth> getDevices() {
+        return Collections.unmodifiableList(devices);
+    }
+
+    /** @return whether every device with hardware answered the last poll */
+    public static boolean allConnected() {
+        return allConnected;
+    }
+
+    private static void event(String message, boolean error) {
+        eventLog.append(message);
+        if (error) {
+            DriverStation.reportError(message, false);
+        } else {
+            DriverStation.reportWarning(message, false);
+        }
+    }
+
+    private static void poll() {
+        if (signals.length == 0) {
+            return;
+        }
+        BaseStatusSignalValue.waitForAll(0, signals);
+        double now = Timer.getFPGATimestamp();
+        boolean all = true;
+        for (int i = 0; i < devices.size(); i++) {
+            var device = devices.get(i);
+            if (device.isEnabled()) {
+                device.poll(now);
+                all &= device.connected;
+            }
+        }
+        if (all != allConnected) {
+            allConnected = all;
+            allConnectedEntry.setBoolean(all);
+        }
+    }
+}
@@ -1,50 +1,105 @@
 package com.igknighters.util.hardware;
 
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.function.Consumer;
 import java.util.function.Function;
 
-import com.ctre.phoenixpro.StatusSignalValue;
 import com.ctre.phoenixpro.configs.CANcoderConfiguration;
 import com.ctre.phoenixpro.configs.CANcoderConfigurator;
 import com.ctre.phoenixpro.configs.MagnetSensorConfigs;
 import com.ctre.phoenixpro.hardware.CANcoder;
 import com.ctre.phoenixpro.signals.SensorDirectionValue;
+import com.ctre.phoenixpro.sim.CANcoderSimState;
+import com.igknighters.Robot;
+import com.igknighters.util.hardware.OptionalHardwareUtil.DoubleHardwareValue;
 import com.igknighters.util.hardware.OptionalHardwareUtil.HardwareSuccessResponse;
 import com.igknighters.util.hardware.OptionalHardwareUtil.HardwareValueResponse;
 import com.igknighters.util.hardware.OptionalHardwareUtil.PositionUnit;
 import com.igknighters.util.hardware.OptionalHardwareUtil.VelocityUnit;
+import com.igknighters.util.hardware.SignalProfile.Signal;
 import com.igknighters.util.logging.BootupLogger;
 
 import edu.wpi.first.util.sendable.Sendable;
 import edu.wpi.first.util.sendable.SendableBuilder;
+import edu.wpi.first.wpilibj.DriverStation;
 
 public class McqCanCoder implements Sendable {
     private int deviceNumber;
     private boolean hasCoder = false;
     private CANcoder canCoder;
 
-    private StatusSignalValue<Double> veloStatusValue;
-    private StatusSignalValue<Double> posStatusValue;
-    private StatusSignalValue<Double> absPosStatusValue;
+    private CachedSignal velocitySignal;
+    private CachedSignal positionSignal;
+    private CachedSignal absolutePositionSignal;
+
+    private final CanTrafficManager.Device traffic;
+    private final SignalProfile signals;
+    private final SignalSample positionSample = new SignalSample();
+    private final SignalSample velocitySample = new SignalSample();
+    /** What {@link #setInverted(boolean)} last wrote, never changed after it's set, null when unknown */
+    private volatile MagnetSensorConfigs magnetConfigs = null;
+    /** The last configerate job, config changes made while it runs are queued behind it */
+    private CompletableFuture<?> pendingConfig = CompletableFuture.completedFuture(null);
+    /** The latest direction asked for, a queued job applies what it is when it runs */
+    private volatile SensorDirectionValue requestedDirection = null;
+    /** Whether a job applying the requested direction is waiting to run */
+    private final AtomicBoolean magnetQueued = new AtomicBoolean(false);
 
     public McqCanCoder(int deviceNumber, boolean isEnabled) {
+        this(deviceNumber, isEnabled, SignalProfile.canCoderDefault());
+    }
+
+    /**
+     * @param signals the status signals this CANcoder should send, everything else is turned off
+     */
+    public McqCanCoder(int deviceNumber, boolean isEnabled, SignalProfile signals) {
         this.deviceNumber = deviceNumber;
         this.hasCoder = isEnabled;
+        this.traffic = CanTrafficManager.register("CANCoder" + deviceNumber);
+        this.signals = signals;
         if (hasCoder) {
             canCoder = new CANcoder(deviceNumber);
-            veloStatusValue = canCoder.getVelocity();
-            posStatusValue = canCoder.getPosition();
-            absPosStatusValue = canCoder.getAbsolutePosition();
+            registerSignals();
             BootupLogger.BootupLog("CANCoder " + deviceNumber + " initialized");
         } else {
+            DeviceHealthMonitor.register(traffic.getName(), null, null);
             BootupLogger.BootupLog("CANCoder " + deviceNumber + " not initialized");
         }
     }
 
+    private void registerSignals() {
+        velocitySignal = StatusSignalRegistry.register(canCoder.getVelocity(),
+                signals.getHz(Signal.Velocity), traffic);
+        positionSignal = StatusSignalRegistry.register(canCoder.getPosition(),
+                signals.getHz(Signal.Position), traffic);
+        absolutePositionSignal = StatusSignalRegistry.register(canCoder.getAbsolutePosition(),
+                signals.getHz(Signal.AbsolutePosition), traffic);
+        DeviceHealthMonitor.register(traffic.getName(), canCoder.getFaultField(), canCoder.getStickyFaultField());
+    }
+
     public boolean enabled() {
         return hasCoder;
     }
 
+    /**
+     * Forces the CANCoder to be enabled in sim, is reccomended if your using it in sim
+     */
+    public void ifSimEnable() {
+        if (Robot.isSimulation() && !hasCoder) {
+            hasCoder = true;
+            canCoder = new CANcoder(deviceNumber);
+            registerSignals();
+        }
+    }
+
+    public HardwareValueResponse<CANcoderSimState> getSimState() {
+        if (hasCoder) {
+            return HardwareValueResponse.contains(canCoder.getSimState());
+        }
+        return HardwareValueResponse.empty();
+    }
+
     public int getDeviceID() {
         return deviceNumber;
     }
@@ -57,6 +112,8 @@ public class McqCanCoder implements Sendable {
     public void map(Consumer<CANcoder> consumer) {
         if (hasCoder) {
             consumer.accept(canCoder);
+            // may have changed the config
+            magnetConfigs = null;
         }
     }
 
@@ -68,6 +125,7 @@ public class McqCanCoder implements Sendable {
      */
     public <T> HardwareValueResponse<T> map(Function<CANcoder, T> func) {
         if (hasCoder) {
+            magnetConfigs = null;
             return HardwareValueResponse.contains(func.apply(canCoder));
         }
         return HardwareValueResponse.empty();
@@ -78,14 +136,47 @@ public class McqCanCoder implements Sendable {
      * on the configurator
      * <p>
      * REQUIRES ROATION SET TO 0-1
+     * <p>
+     * Runs on the {@link DeviceConfigurator} pool during startup, so configFunc
+     * must only touch the configurator it's given
      * 
      * @param configFunc
      */
     public void configerate(Consumer<CANcoderConfigurator> configFunc) {
         if (hasCoder) {
-            canCoder.getConfigurator().apply(new CANcoderConfiguration());
-            configFunc.accept(canCoder.getConfigurator());
+            var configurator = canCoder.getConfigurator();
+            // a new configerate replaces the direction asked for before it
+            requestedDirection = null;
+            pendingConfig = DeviceConfigurator.submit(traffic.getName(), null, () -> {
+                var status = configurator.apply(new CANcoderConfiguration());
+                if (!status.isError()) {
+                    configFunc.accept(configurator);
+                }
+                return status;
+            }, () -> magnetConfigs = null);
+        }
+    }
+
+    /**
+     * Applies the whole config, which also resets everything it doesn't set, on the
+     * {@link DeviceConfigurator} pool. Skipped if the CANCoder already has the config.
+     * 
+     * @param config isn't copied, don't change it after passing it in
+     * @return completes once the CANCoder is configured, right away if there is no CANCoder
+     */
+    public CompletableFuture<DeviceConfigurator.Result> configerate(CANcoderConfiguration config) {
+        if (hasCoder) {
+            var configurator = canCoder.getConfigurator();
+            requestedDirection = null;
+            var future = DeviceConfigurator.submit(traffic.getName(), () -> {
+                var onDevice = new CANcoderConfiguration();
+                return configurator.refresh(onDevice).isError() ? null
+                        : DeviceConfigurator.matches(config, onDevice);
+            }, () -> configurator.apply(config), () -> magnetConfigs = copyMagnetConfigs(config.MagnetSensor, null));
+            pendingConfig = future;
+            return future;
         }
+        return CompletableFuture.completedFuture(DeviceConfigurator.Result.Skipped);
     }
 
     /**
@@ -93,121 +184,281 @@ public class McqCanCoder implements Sendable {
      * @return the position of the CANCoder in the specified unit type
      */
     public HardwareValueResponse<Double> getPosition(PositionUnit unitType) {
-        Double outVal = 0.0;
-        if (hasCoder) {
-            var val = posStatusValue.waitForUpdate(0.02).getValue();
-            switch (unitType) {
-                case REVOLUTIONS:
-                    outVal = val;
-                case TICKS:
-                    outVal = val * 4096;
-                case DEGREES:
-                    outVal = val * 360;
-                case RADIANS:
-                    outVal = val * 2 * Math.PI;
-            }
-        } else {
-            return HardwareValueResponse.empty();
+        if (hasCoder && positionSignal != null) {
+            return HardwareValueResponse.contains(positionSignal.getValue() * positionScale(unitType));
+        }
+        return HardwareValueResponse.empty();
+    }
+
+    /**
+     * Doesn't allocate, for reads every loop
+     * 
+     * @return the position in the specified unit type, fallback if there is no CANCoder or the signal is off
+     */
+    public double getPositionOr(PositionUnit unitType, double fallback) {
+        if (hasCoder && positionSignal != null) {
+            return positionSignal.getValue() * positionScale(unitType);
+        }
+        return fallback;
+    }
+
+    /**
+     * Doesn't allocate, fills {@code out} with the position in the specified unit type
+     * 
+     * @return {@code out}
+     */
+    public DoubleHardwareValue getPosition(PositionUnit unitType, DoubleHardwareValue out) {
+        if (hasCoder && positionSignal != null) {
+            return out.set(positionSignal.getValue() * positionScale(unitType));
         }
-        return HardwareValueResponse.contains(outVal);
+        return out.clear();
     }
 
+    /**
+     * @param unitType
+     * @return the absolute position of the CANCoder in the specified unit type
+     */
     public HardwareValueResponse<Double> getPositionAbsolute(PositionUnit unitType) {
-        Double outVal = 0.0;
-        if (hasCoder) {
-            var val = absPosStatusValue.waitForUpdate(0.02).getValue();
-            switch (unitType) {
-                case REVOLUTIONS:
-                    outVal = val;
-                case TICKS:
-                    outVal = val * 4096;
-                case DEGREES:
-                    outVal = val * 360;
-                case RADIANS:
-                    outVal = val * 2 * Math.PI;
-            }
-        } else {
-            return HardwareValueResponse.empty();
+        if (hasCoder && absolutePositionSignal != null) {
+            return HardwareValueResponse.contains(absolutePositionSignal.getValue() * positionScale(unitType));
         }
-        return HardwareValueResponse.contains(outVal);
+        return HardwareValueResponse.empty();
     }
 
+    /**
+     * Doesn't allocate, for reads every loop
+     * 
+     * @return the absolute position in the specified unit type, fallback if there is no CANCoder or the signal is off
+     */
+    public double getPositionAbsoluteOr(PositionUnit unitType, double fallback) {
+        if (hasCoder && absolutePositionSignal != null) {
+            return absolutePositionSignal.getValue() * positionScale(unitType);
+        }
+        return fallback;
+    }
+
+    /**
+     * Doesn't allocate, fills {@code out} with the absolute position in the specified unit type
+     * 
+     * @return {@code out}
+     */
+    public DoubleHardwareValue getPositionAbsolute(PositionUnit unitType, DoubleHardwareValue out) {
+        if (hasCoder && absolutePositionSignal != null) {
+            return out.set(absolutePositionSignal.getValue() * positionScale(unitType));
+        }
+        return out.clear();
+    }
+
+    /**
+     * @param unitType
+     * @return the velocity of the CANCoder in the specified unit type
+     */
     public HardwareValueResponse<Double> getVelocity(VelocityUnit unitType) {
-        Double outVal = 0.0;
-        if (hasCoder) {
-            var val = veloStatusValue.waitForUpdate(0.02).getValue();
-            switch (unitType) {
-                case RPM:
-                    outVal = val * 60;
-                case RPS:
-                    outVal = val;
-                case TICKS_PER_100MS:
-                    outVal = val * 4096 * 10;
-            }
-        } else {
-            return HardwareValueResponse.empty();
+        if (hasCoder && velocitySignal != null) {
+            return HardwareValueResponse.contains(velocitySignal.getValue() * velocityScale(unitType));
         }
-        return HardwareValueResponse.contains(outVal);
+        return HardwareValueResponse.empty();
+    }
+
+    /**
+     * Doesn't allocate, for reads every loop
+     * 
+     * @return the velocity in the specified unit type, fallback if there is no CANCoder or the signal is off
+     */
+    public double getVelocityOr(VelocityUnit unitType, double fallback) {
+        if (hasCoder && velocitySignal != null) {
+            return velocitySignal.getValue() * velocityScale(unitType);
+        }
+        return fallback;
+    }
+
+    /**
+     * Doesn't allocate, fills {@code out} with the velocity in the specified unit type
+     * 
+     * @return {@code out}
+     */
+    public DoubleHardwareValue getVelocity(VelocityUnit unitType, DoubleHardwareValue out) {
+        if (hasCoder && velocitySignal != null) {
+            return out.set(velocitySignal.getValue() * velocityScale(unitType));
+        }
+        return out.clear();
     }
 
     public HardwareValueResponse<Boolean> hasCANcoderReached(PositionUnit units, double value, double tolerance) {
-        if (hasCoder) {
-            Double pos;
-            Double tol;
-            if (units == PositionUnit.REVOLUTIONS) {
-                pos = value;
-                tol = tolerance;
-            } else if (units == PositionUnit.TICKS) {
-                pos = value / 4096.0;
-                tol = tolerance / 4096.0;
-            } else if (units == PositionUnit.DEGREES) {
-                pos = value / 360.0;
-                tol = tolerance / 360.0;
-            } else if (units == PositionUnit.RADIANS) {
-                pos = value / (2 * Math.PI);
-                tol = tolerance / (2 * Math.PI);
-            } else {
-                return HardwareValueResponse.empty();
-            }
+        if (hasCoder && positionSignal != null) {
+            double scale = positionScale(units);
             return HardwareValueResponse.contains(
-                    Math.abs(pos - this.getPosition(PositionUnit.REVOLUTIONS).getValue()) < tol);
+                    Math.abs(value / scale - positionSignal.getValue()) < tolerance / scale);
         }
         return HardwareValueResponse.empty();
     }
 
     public HardwareValueResponse<Boolean> hasCANcoderReached(VelocityUnit units, double value, double tolerance) {
-        if (hasCoder) {
-            Double vel;
-            Double tol;
-            if (units == VelocityUnit.RPS) {
-                vel = value;
-                tol = tolerance;
-            } else if (units == VelocityUnit.RPM) {
-                vel = value / 60.0;
-                tol = tolerance / 60.0;
-            } else if (units == VelocityUnit.TICKS_PER_100MS) {
-                vel = value / 4096.0 / 10.0;
-                tol = tolerance / 4096.0 / 10.0;
-            } else {
-                return HardwareValueResponse.empty();
-            }
+        if (hasCoder && velocitySignal != null) {
+            double scale = velocityScale(units);
             return HardwareValueResponse.contains(
-                    Math.abs(vel - this.getVelocity(VelocityUnit.RPS).getValue()) < tol);
+                    Math.abs(value / scale - velocitySignal.getValue()) < tolerance / scale);
         }
         return HardwareValueResponse.empty();
     }
 
+    /** @return how many of the unit make up one rotation */
+    private static double positionScale(PositionUnit units) {
+        switch (units) {
+            case REVOLUTIONS:
+                return 1.0;
+            case TICKS:
+                return 4096.0;
+            case DEGREES:
+                return 360.0;
+            case RADIANS:
+                return 2 * Math.PI;
+            default:
+                throw new IllegalArgumentException("Invalid unit type");
+        }
+    }
+
+    /** @return how many of the unit make up one rotation per second */
+    private static double velocityScale(VelocityUnit units) {
+        switch (units) {
+            case RPS:
+                return 1.0;
+            case RPM:
+                return 60.0;
+            case TICKS_PER_100MS:
+                return 4096.0 / 10.0;
+            default:
+                throw new IllegalArgumentException("Invalid unit type");
+        }
+    }
+
+    private static SignalSample sample(CachedSignal signal, boolean hasCoder, double scale, SignalSample out) {
+        if (hasCoder && signal != null) {
+            signal.sample(out, scale);
+        } else {
+            out.clear();
+        }
+        return out;
+    }
+
+    /**
+     * Fills {@code out} with the position and when the CANCoder measured it,
+     * empty if there is no CANCoder or the position signal is off
+     *
+     * @return {@code out}
+     */
+    public SignalSample getPositionSample(PositionUnit units, SignalSample out) {
+        return sample(positionSignal, hasCoder, positionScale(units), out);
+    }
+
+    /**
+     * Fills {@code out} with the absolute position and when the CANCoder measured it,
+     * empty if there is no CANCoder or the absolute position signal is off
+     *
+     * @return {@code out}
+     */
+    public SignalSample getPositionAbsoluteSample(PositionUnit units, SignalSample out) {
+        return sample(absolutePositionSignal, hasCoder, positionScale(units), out);
+    }
+
+    /**
+     * Fills {@code out} with the velocity and when the CANCoder measured it,
+     * empty if there is no CANCoder or the velocity signal is off
+     *
+     * @return {@code out}
+     */
+    public SignalSample getVelocitySample(VelocityUnit units, SignalSample out) {
+        return sample(velocitySignal, hasCoder, velocityScale(units), out);
+    }
+
+    /**
+     * The position extrapolated to now with the velocity, makes up for the time
+     * the position took to arrive. Falls back to the raw position if the velocity signal is off.
+     */
+    public HardwareValueResponse<Double> getPositionCompensated(PositionUnit units) {
+        if (hasCoder && positionSignal != null) {
+            getPositionSample(PositionUnit.REVOLUTIONS, positionSample);
+            getVelocitySample(VelocityUnit.RPS, velocitySample);
+            return HardwareValueResponse.contains(
+                    SignalSample.extrapolate(positionSample, velocitySample) * positionScale(units));
+        }
+        return HardwareValueResponse.empty();
+    }
+
+    /**
+     * Only writes to the CANCoder if the direction changed, without blocking the robot thread.
+     * Writes are rate limited by {@link CanTrafficManager} so the change may be applied a few
+     * loops later, while a configerate job runs or before the config is known one job is
+     * queued behind it that applies the latest direction asked for.
+     */
     public HardwareSuccessResponse setInverted(boolean inverted) {
         if (hasCoder) {
-            MagnetSensorConfigs cfg = new MagnetSensorConfigs();
-            canCoder.getConfigurator().refresh(cfg);
-            cfg.SensorDirection = inverted ? SensorDirectionValue.Clockwise_Positive
+            var direction = inverted ? SensorDirectionValue.Clockwise_Positive
                     : SensorDirectionValue.CounterClockwise_Positive;
-            return HardwareSuccessResponse.from(canCoder.getConfigurator().apply(cfg));
+            requestedDirection = direction;
+            var known = magnetConfigs;
+            if (known == null || !pendingConfig.isDone()) {
+                return queueMagnetConfigs();
+            }
+            if (known.SensorDirection == direction) {
+                return HardwareSuccessResponse.success();
+            }
+            var cfg = copyMagnetConfigs(known, direction);
+            magnetConfigs = cfg;
+            var configurator = canCoder.getConfigurator();
+            return traffic.writeConfig("MagnetSensor", () -> {
+                var status = configurator.apply(cfg, 0.0);
+                if (status.isError() && magnetConfigs == cfg) {
+                    magnetConfigs = null;
+                }
+                return status;
+            });
         }
         return HardwareSuccessResponse.empty();
     }
 
+    private HardwareSuccessResponse queueMagnetConfigs() {
+        if (!magnetQueued.compareAndSet(false, true)) {
+            // the queued job reads the requested direction when it runs
+            return HardwareSuccessResponse.success();
+        }
+        pendingConfig = pendingConfig.handleAsync((result, error) -> {
+            magnetQueued.set(false);
+            var direction = requestedDirection;
+            if (direction == null) {
+                return null;
+            }
+            var configurator = canCoder.getConfigurator();
+            var onDevice = new MagnetSensorConfigs();
+            var status = configurator.refresh(onDevice);
+            if (status.isError()) {
+                // applying defaults would lose the magnet offset
+                DriverStation.reportError("Failed to get CANCoder config on " + traffic.getName(), false);
+                magnetConfigs = null;
+                return null;
+            }
+            var cfg = copyMagnetConfigs(onDevice, direction);
+            status = configurator.apply(cfg);
+            if (status.isError()) {
+                DriverStation.reportWarning("Config write MagnetSensor failed on " + traffic.getName() + ": "
+                        + status.getName(), false);
+                magnetConfigs = null;
+            } else {
+                magnetConfigs = cfg;
+            }
+            return null;
+        }, DeviceConfigurator.background());
+        return HardwareSuccessResponse.success();
+    }
+
+    private static MagnetSensorConfigs copyMagnetConfigs(MagnetSensorConfigs from, SensorDirectionValue direction) {
+        var cfg = new MagnetSensorConfigs();
+        cfg.SensorDirection = direction != null ? direction : from.SensorDirection;
+        cfg.MagnetOffset = from.MagnetOffset;
+        cfg.AbsoluteSensorRange = from.AbsoluteSensorRange;
+        return cfg;
+    }
+
     public HardwareSuccessResponse setSensorPosition(double position) {
         if (hasCoder) {
             // TODO: is this absolute or relative?
@@ -222,9 +473,15 @@ public class McqCanCoder implements Sendable {
         builder.setSmartDashboardType("McqCanCoder");
         builder.addBooleanProperty(".enabled", () -> this.enabled(), null);
         if (this.enabled()) {
-            builder.addDoubleProperty("Velocity(RPS)", this.veloStatusValue.asSupplier()::get, null);
-            builder.addDoubleProperty("Position(R)", this.posStatusValue.asSupplier()::get, null);
-            builder.addDoubleProperty("Absolute Position(R)", this.absPosStatusValue.asSupplier()::get, null);
+            if (velocitySignal != null) {
+                builder.addDoubleProperty("Velocity(RPS)", this.velocitySignal::getValue, null);
+            }
+            if (positionSignal != null) {
+                builder.addDoubleProperty("Position(R)", this.positionSignal::getValue, null);
+            }
+            if (absolutePositionSignal != null) {
+                builder.addDoubleProperty("Absolute Position(R)", this.absolutePositionSignal::getValue, null);
+            }
         }
     }
 }
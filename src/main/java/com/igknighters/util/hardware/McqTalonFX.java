@@ -1,13 +1,16 @@
 package com.igknighters.util.hardware;
 
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.function.Consumer;
 import java.util.function.Function;
 
-import com.ctre.phoenixpro.StatusSignalValue;
 import com.ctre.phoenixpro.configs.MotionMagicConfigs;
 import com.ctre.phoenixpro.configs.MotorOutputConfigs;
 import com.ctre.phoenixpro.configs.TalonFXConfiguration;
 import com.ctre.phoenixpro.configs.TalonFXConfigurator;
+import com.ctre.phoenixpro.controls.ControlRequest;
+import com.ctre.phoenixpro.controls.DutyCycleOut;
 import com.ctre.phoenixpro.controls.Follower;
 import com.ctre.phoenixpro.controls.MotionMagicDutyCycle;
 import com.ctre.phoenixpro.controls.PositionDutyCycle;
@@ -18,10 +21,12 @@ import com.ctre.phoenixpro.signals.InvertedValue;
 import com.ctre.phoenixpro.signals.NeutralModeValue;
 import com.ctre.phoenixpro.sim.TalonFXSimState;
 import com.igknighters.Robot;
+import com.igknighters.util.hardware.OptionalHardwareUtil.DoubleHardwareValue;
 import com.igknighters.util.hardware.OptionalHardwareUtil.HardwareSuccessResponse;
 import com.igknighters.util.hardware.OptionalHardwareUtil.HardwareValueResponse;
 import com.igknighters.util.hardware.OptionalHardwareUtil.PositionUnit;
 import com.igknighters.util.hardware.OptionalHardwareUtil.VelocityUnit;
+import com.igknighters.util.hardware.SignalProfile.Signal;
 import com.igknighters.util.logging.BootupLogger;
 
 import edu.wpi.first.util.sendable.Sendable;
@@ -35,20 +40,52 @@ public class McqTalonFX implements Sendable{
     private boolean hasMotor = false;
     private TalonFX motor;
 
-    private StatusSignalValue<Double> veloStatusValue;
-    private StatusSignalValue<Double> posStatusValue;
+    private CachedSignal velocitySignal;
+    private CachedSignal positionSignal;
+    private CachedSignal currentSignal;
+    private CachedSignal temperatureSignal;
+    private final SignalProfile signals;
+    private final SignalSample positionSample = new SignalSample();
+    private final SignalSample velocitySample = new SignalSample();
 
     private boolean foc = false;
 
+    // reused for every call, only the fields change
+    // open loop keeps the EnableFOC default motor.set(double) used
+    private final DutyCycleOut dutyCycleRequest = new DutyCycleOut(0.0);
+    private final VelocityDutyCycle velocityRequest = new VelocityDutyCycle(0.0);
+    private final PositionDutyCycle positionRequest = new PositionDutyCycle(0.0);
+    private final MotionMagicDutyCycle motionMagicRequest = new MotionMagicDutyCycle(0.0).withSlot(0);
+    private final VoltageOut stopRequest = new VoltageOut(0.0);
+    private final CanTrafficManager.Device traffic;
+    /** What the config setters last wrote, never changed after it's set, null when unknown */
+    private volatile MotorOutputConfigs outputConfigs = null;
+    /** The last configerate job, output config changes made while it runs are queued behind it */
+    private CompletableFuture<?> pendingConfig = CompletableFuture.completedFuture(null);
+    /** The latest output config changes asked for, a queued job applies what they are when it runs */
+    private volatile NeutralModeValue requestedMode = null;
+    private volatile InvertedValue requestedInverted = null;
+    /** Whether a job applying the requested output configs is waiting to run */
+    private final AtomicBoolean outputQueued = new AtomicBoolean(false);
+
     public McqTalonFX(int deviceNumber, boolean isEnabled) {
+        this(deviceNumber, isEnabled, SignalProfile.talonFXDefault());
+    }
+
+    /**
+     * @param signals the status signals this motor should send, everything else is turned off
+     */
+    public McqTalonFX(int deviceNumber, boolean isEnabled, SignalProfile signals) {
         this.deviceNumber = deviceNumber;
+        this.signals = signals;
         this.hasMotor = isEnabled;
+        this.traffic = CanTrafficManager.register("TalonFX" + deviceNumber);
         if (isEnabled) {
             motor = new TalonFX(deviceNumber);
-            veloStatusValue = motor.getVelocity();
-            posStatusValue = motor.getRotorPosition();
+            registerSignals();
             BootupLogger.BootupLog("TalonFX " + deviceNumber + " initialized");
         } else {
+            DeviceHealthMonitor.register(traffic.getName(), null, null);
             BootupLogger.BootupLog("TalonFX " + deviceNumber + " not initialized");
         }
     }
@@ -61,16 +98,29 @@ public class McqTalonFX implements Sendable{
      * Forces the motor to be enabled in sim, is reccomended if your using it in sim
      */
     public void ifSimEnable() {
-        if (Robot.isSimulation()) {
+        if (Robot.isSimulation() && !hasMotor) {
             hasMotor = true;
             motor = new TalonFX(deviceNumber);
-            veloStatusValue = motor.getVelocity();
-            posStatusValue = motor.getRotorPosition();
+            registerSignals();
         }
     }
 
+    private void registerSignals() {
+        // rotor velocity to match the rotor position, so the two can be combined
+        velocitySignal = StatusSignalRegistry.register(motor.getRotorVelocity(),
+                signals.getHz(Signal.Velocity), traffic);
+        positionSignal = StatusSignalRegistry.register(motor.getRotorPosition(),
+                signals.getHz(Signal.Position), traffic);
+        currentSignal = StatusSignalRegistry.register(motor.getTorqueCurrent(),
+                signals.getHz(Signal.TorqueCurrent), traffic);
+        temperatureSignal = StatusSignalRegistry.register(motor.getDeviceTemp(),
+                signals.getHz(Signal.Temperature), traffic);
+        DeviceHealthMonitor.register(traffic.getName(), motor.getFaultField(), motor.getStickyFaultField());
+    }
+
     /**
-     * Will make the motor use FOC or not
+     * Will make the motor use FOC or not for closed loop control,
+     * {@link #setOpenLoop(double)} keeps the Phoenix default of FOC on
      * 
      * @return
      */
@@ -97,6 +147,9 @@ public class McqTalonFX implements Sendable{
     public HardwareSuccessResponse map(Consumer<TalonFX> consumer) {
         if (hasMotor) {
             consumer.accept(motor);
+            // may have sent its own control request or config
+            traffic.invalidateControl();
+            outputConfigs = null;
             return HardwareSuccessResponse.success();
         }
         return HardwareSuccessResponse.empty();
@@ -110,6 +163,8 @@ public class McqTalonFX implements Sendable{
      */
     public <T> HardwareValueResponse<T> map(Function<TalonFX, T> func) {
         if (hasMotor) {
+            traffic.invalidateControl();
+            outputConfigs = null;
             return HardwareValueResponse.contains(func.apply(motor));
         }
         return HardwareValueResponse.empty();
@@ -118,65 +173,132 @@ public class McqTalonFX implements Sendable{
     /**
      * Will factory reset the motor if its enabled then run the configFunc
      * on the configurator
+     * <p>
+     * Runs on the {@link DeviceConfigurator} pool during startup, so configFunc
+     * must only touch the configurator it's given
      * 
      * @param configFunc
      */
     public void configerate(Consumer<TalonFXConfigurator> configFunc) {
         if (hasMotor) {
-            var status = motor.getConfigurator().apply(new TalonFXConfiguration());
-            if (status.isError()) {
-                // DriverStation.reportError("Failed to factory reset TalonFX " + deviceNumber,
-                // false);
-                throw new RuntimeException("Failed to factory reset TalonFX " + deviceNumber);
-            }
-            configFunc.accept(motor.getConfigurator());
+            var configurator = motor.getConfigurator();
+            clearRequestedOutputConfigs();
+            pendingConfig = DeviceConfigurator.submit(traffic.getName(), null, () -> {
+                var status = configurator.apply(new TalonFXConfiguration());
+                if (!status.isError()) {
+                    configFunc.accept(configurator);
+                }
+                return status;
+            }, this::invalidateOutputConfigs);
         }
     }
 
+    /**
+     * Applies the whole config, which also resets everything it doesn't set, on the
+     * {@link DeviceConfigurator} pool. Skipped if the motor already has the config.
+     * 
+     * @param config isn't copied, don't change it after passing it in
+     * @return completes once the motor is configured, right away if there is no motor
+     */
+    public CompletableFuture<DeviceConfigurator.Result> configerate(TalonFXConfiguration config) {
+        if (hasMotor) {
+            var configurator = motor.getConfigurator();
+            clearRequestedOutputConfigs();
+            var future = DeviceConfigurator.submit(traffic.getName(), () -> {
+                var onDevice = new TalonFXConfiguration();
+                return configurator.refresh(onDevice).isError() ? null
+                        : DeviceConfigurator.matches(config, onDevice);
+            }, () -> configurator.apply(config), () -> outputConfigs = copyOutputConfigs(config.MotorOutput,
+                    null, null));
+            pendingConfig = future;
+            return future;
+        }
+        return CompletableFuture.completedFuture(DeviceConfigurator.Result.Skipped);
+    }
+
+    private void invalidateOutputConfigs() {
+        outputConfigs = null;
+    }
+
+    /** A new configerate replaces the output config changes asked for before it */
+    private void clearRequestedOutputConfigs() {
+        requestedMode = null;
+        requestedInverted = null;
+    }
+
     /**
      * @param unitType
-     * @return the velocity of the motor in the specified unit type
+     * @return the rotor velocity of the motor in the specified unit type
      */
     public HardwareValueResponse<Double> getVelocity(VelocityUnit unitType) {
-        Double outVal = 0.0;
-        if (hasMotor) {
-            var val = veloStatusValue.waitForUpdate(0.02).getValue();
-            switch (unitType) {
-                case RPS:
-                    outVal = val;
-                case RPM:
-                    outVal = val * 60;
-                case TICKS_PER_100MS:
-                    outVal = val * 2048 * 10;
-            }
-        } else {
-            return HardwareValueResponse.empty();
+        if (hasMotor && velocitySignal != null) {
+            return HardwareValueResponse.contains(velocitySignal.getValue() * velocityScale(unitType));
+        }
+        return HardwareValueResponse.empty();
+    }
+
+    /**
+     * Doesn't allocate, for reads every loop
+     * 
+     * @return the velocity in the specified unit type, fallback if there is no motor or the signal is off
+     */
+    public double getVelocityOr(VelocityUnit unitType, double fallback) {
+        if (hasMotor && velocitySignal != null) {
+            return velocitySignal.getValue() * velocityScale(unitType);
+        }
+        return fallback;
+    }
+
+    /**
+     * Doesn't allocate, fills {@code out} with the velocity in the specified unit type
+     * 
+     * @return {@code out}
+     */
+    public DoubleHardwareValue getVelocity(VelocityUnit unitType, DoubleHardwareValue out) {
+        if (hasMotor && velocitySignal != null) {
+            return out.set(velocitySignal.getValue() * velocityScale(unitType));
         }
-        return HardwareValueResponse.contains(outVal);
+        return out.clear();
     }
 
     /**
      * @param unitType
-     * @return the position of the motor in the specified unit type
+     * @return the rotor position of the motor in the specified unit type
      */
     public HardwareValueResponse<Double> getPosition(PositionUnit unitType) {
-        Double outVal = 0.0;
-        if (hasMotor) {
-            var val = posStatusValue.waitForUpdate(0.02).getValue();
-            switch (unitType) {
-                case REVOLUTIONS:
-                    outVal = val;
-                case TICKS:
-                    outVal = val * 2048;
-                case DEGREES:
-                    outVal = val * 360;
-                case RADIANS:
-                    outVal = val * 2 * Math.PI;
-            }
-        } else {
-            return HardwareValueResponse.empty();
+        if (hasMotor && positionSignal != null) {
+            return HardwareValueResponse.contains(positionSignal.getValue() * positionScale(unitType));
         }
-        return HardwareValueResponse.contains(outVal);
+        return HardwareValueResponse.empty();
+    }
+
+    /**
+     * Doesn't allocate, for reads every loop
+     * 
+     * @return the position in the specified unit type, fallback if there is no motor or the signal is off
+     */
+    public double getPositionOr(PositionUnit unitType, double fallback) {
+        if (hasMotor && positionSignal != null) {
+            return positionSignal.getValue() * positionScale(unitType);
+        }
+        return fallback;
+    }
+
+    /**
+     * Doesn't allocate, fills {@code out} with the position in the specified unit type
+     * 
+     * @return {@code out}
+     */
+    public DoubleHardwareValue getPosition(PositionUnit unitType, DoubleHardwareValue out) {
+        if (hasMotor && positionSignal != null) {
+            return out.set(positionSignal.getValue() * positionScale(unitType));
+        }
+        return out.clear();
+    }
+
+    private double absoluteRotations() {
+        var val = positionSignal.getValue();
+        return val - Math.floor(val);
     }
 
     /**
@@ -184,25 +306,73 @@ public class McqTalonFX implements Sendable{
      * @return the absolute position of the motor in the specified unit type
      */
     public HardwareValueResponse<Double> getPositionAbsolute(PositionUnit unitType) {
-        Double outVal = 0.0;
-        if (hasMotor) {
-            var val = posStatusValue.waitForUpdate(0.02).getValue();
-            // val % 1 also works i think
-            val = val - Math.floor(val);
-            switch (unitType) {
-                case REVOLUTIONS:
-                    outVal = val;
-                case TICKS:
-                    outVal = val * 2048;
-                case DEGREES:
-                    outVal = val * 360;
-                case RADIANS:
-                    outVal = val * 2 * Math.PI;
-            }
-        } else {
-            return HardwareValueResponse.empty();
+        if (hasMotor && positionSignal != null) {
+            return HardwareValueResponse.contains(absoluteRotations() * positionScale(unitType));
         }
-        return HardwareValueResponse.contains(outVal);
+        return HardwareValueResponse.empty();
+    }
+
+    /**
+     * Doesn't allocate, for reads every loop
+     * 
+     * @return the absolute position in the specified unit type, fallback if there is no motor or the signal is off
+     */
+    public double getPositionAbsoluteOr(PositionUnit unitType, double fallback) {
+        if (hasMotor && positionSignal != null) {
+            return absoluteRotations() * positionScale(unitType);
+        }
+        return fallback;
+    }
+
+    /** @return how many of the unit make up one rotation */
+    private static double positionScale(PositionUnit units) {
+        switch (units) {
+            case REVOLUTIONS:
+                return 1.0;
+            case TICKS:
+                return 2048.0;
+            case DEGREES:
+                return 360.0;
+            case RADIANS:
+                return 2 * Math.PI;
+            default:
+                throw new IllegalArgumentException("Invalid unit type");
+        }
+    }
+
+    /** @return how many of the unit make up one rotation per second */
+    private static double velocityScale(VelocityUnit units) {
+        switch (units) {
+            case RPS:
+                return 1.0;
+            case RPM:
+                return 60.0;
+            case TICKS_PER_100MS:
+                return 2048.0 / 10.0;
+            default:
+                throw new IllegalArgumentException("Invalid unit type");
+        }
+    }
+
+    private static double toRotations(PositionUnit units, double value) {
+        return value / positionScale(units);
+    }
+
+    private static double toRps(VelocityUnit units, double value) {
+        return value / velocityScale(units);
+    }
+
+    /**
+     * Sends the request unless the traffic manager finds it redundant,
+     * Phoenix keeps resending the last request on its own so skipping is safe.
+     */
+    private HardwareSuccessResponse sendControl(ControlRequest request, boolean changed, double updateHz) {
+        if (traffic.isRedundant(request, changed)) {
+            return HardwareSuccessResponse.success();
+        }
+        var status = motor.setControl(request);
+        traffic.controlSent(request, status, updateHz);
+        return HardwareSuccessResponse.from(status);
     }
 
     /**
@@ -215,7 +385,9 @@ public class McqTalonFX implements Sendable{
     public void setOpenLoop(double value) {
         if (hasMotor) {
             var val = Math.max(-1, Math.min(1, value));
-            motor.set(val);
+            boolean changed = dutyCycleRequest.Output != val;
+            dutyCycleRequest.Output = val;
+            sendControl(dutyCycleRequest, changed, dutyCycleRequest.UpdateFreqHz);
         }
     }
 
@@ -224,20 +396,14 @@ public class McqTalonFX implements Sendable{
      */
     public HardwareSuccessResponse setVelocity(VelocityUnit units, double value, double feedForward) {
         if (hasMotor) {
-            Double speed;
-            if (units == VelocityUnit.RPS) {
-                speed = value;
-            } else if (units == VelocityUnit.RPM) {
-                speed = value / 60.0;
-            } else if (units == VelocityUnit.TICKS_PER_100MS) {
-                speed = value / 2048.0 / 10.0;
-            } else {
-                throw new IllegalArgumentException("Invalid unit type");
-            }
-            VelocityDutyCycle velo = new VelocityDutyCycle(speed)
-                    .withEnableFOC(this.foc)
-                    .withFeedForward(feedForward);
-            return HardwareSuccessResponse.from(motor.setControl(velo));
+            double speed = toRps(units, value);
+            boolean changed = velocityRequest.Velocity != speed
+                    || velocityRequest.FeedForward != feedForward
+                    || velocityRequest.EnableFOC != foc;
+            velocityRequest.Velocity = speed;
+            velocityRequest.FeedForward = feedForward;
+            velocityRequest.EnableFOC = foc;
+            return sendControl(velocityRequest, changed, velocityRequest.UpdateFreqHz);
         }
         return HardwareSuccessResponse.empty();
     }
@@ -254,22 +420,14 @@ public class McqTalonFX implements Sendable{
      */
     public HardwareSuccessResponse setPosition(PositionUnit units, double value, double feedForward) {
         if (hasMotor) {
-            Double position;
-            if (units == PositionUnit.REVOLUTIONS) {
-                position = value;
-            } else if (units == PositionUnit.TICKS) {
-                position = value / 2048.0;
-            } else if (units == PositionUnit.DEGREES) {
-                position = value / 360.0;
-            } else if (units == PositionUnit.RADIANS) {
-                position = value / (2 * Math.PI);
-            } else {
-                throw new IllegalArgumentException("Invalid unit type");
-            }
-            PositionDutyCycle pos = new PositionDutyCycle(position)
-                    .withEnableFOC(this.foc)
-                    .withFeedForward(feedForward);
-            return HardwareSuccessResponse.from(motor.setControl(pos));
+            double position = toRotations(units, value);
+            boolean changed = positionRequest.Position != position
+                    || positionRequest.FeedForward != feedForward
+                    || positionRequest.EnableFOC != foc;
+            positionRequest.Position = position;
+            positionRequest.FeedForward = feedForward;
+            positionRequest.EnableFOC = foc;
+            return sendControl(positionRequest, changed, positionRequest.UpdateFreqHz);
         }
         return HardwareSuccessResponse.empty();
     }
@@ -279,23 +437,14 @@ public class McqTalonFX implements Sendable{
      */
     public HardwareSuccessResponse setPositionMotionMagic(PositionUnit units, double value, double feedForward) {
         if (hasMotor) {
-            Double position;
-            if (units == PositionUnit.REVOLUTIONS) {
-                position = value;
-            } else if (units == PositionUnit.TICKS) {
-                position = value / 2048.0;
-            } else if (units == PositionUnit.DEGREES) {
-                position = value / 360.0;
-            } else if (units == PositionUnit.RADIANS) {
-                position = value / (2 * Math.PI);
-            } else {
-                throw new IllegalArgumentException("Invalid unit type");
-            }
-            MotionMagicDutyCycle pos = new MotionMagicDutyCycle(position)
-                    .withEnableFOC(this.foc)
-                    .withFeedForward(feedForward)
-                    .withSlot(0);
-            return HardwareSuccessResponse.from(motor.setControl(pos));
+            double position = toRotations(units, value);
+            boolean changed = motionMagicRequest.Position != position
+                    || motionMagicRequest.FeedForward != feedForward
+                    || motionMagicRequest.EnableFOC != foc;
+            motionMagicRequest.Position = position;
+            motionMagicRequest.FeedForward = feedForward;
+            motionMagicRequest.EnableFOC = foc;
+            return sendControl(motionMagicRequest, changed, motionMagicRequest.UpdateFreqHz);
         }
         return HardwareSuccessResponse.empty();
     }
@@ -312,7 +461,7 @@ public class McqTalonFX implements Sendable{
      */
     public HardwareSuccessResponse stop() {
         if (hasMotor) {
-            return HardwareSuccessResponse.from(motor.setControl(new VoltageOut(0.0)));
+            return sendControl(stopRequest, false, stopRequest.UpdateFreqHz);
         }
         return HardwareSuccessResponse.empty();
     }
@@ -321,106 +470,193 @@ public class McqTalonFX implements Sendable{
      * Will return the current torque current of the motor
      */
     public HardwareValueResponse<Double> getCurrent() {
-        if (hasMotor) {
-            return HardwareValueResponse.contains(motor.getTorqueCurrent().getValue());
+        if (hasMotor && currentSignal != null) {
+            return HardwareValueResponse.contains(currentSignal.getValue());
         }
         return HardwareValueResponse.empty();
     }
 
-    public HardwareValueResponse<Boolean> hasMotorReached(PositionUnit units, double value, double tolerance) {
-        if (hasMotor) {
-            Double pos;
-            Double tol;
-            if (units == PositionUnit.REVOLUTIONS) {
-                pos = value;
-                tol = tolerance;
-            } else if (units == PositionUnit.TICKS) {
-                pos = value / 2048.0;
-                tol = tolerance / 2048.0;
-            } else if (units == PositionUnit.DEGREES) {
-                pos = value / 360.0;
-                tol = tolerance / 360.0;
-            } else if (units == PositionUnit.RADIANS) {
-                pos = value / (2 * Math.PI);
-                tol = tolerance / (2 * Math.PI);
-            } else {
-                return HardwareValueResponse.empty();
-            }
+    /**
+     * Doesn't allocate, for reads every loop
+     * 
+     * @return the torque current, fallback if there is no motor or the signal is off
+     */
+    public double getCurrentOr(double fallback) {
+        if (hasMotor && currentSignal != null) {
+            return currentSignal.getValue();
+        }
+        return fallback;
+    }
+
+    /**
+     * Fills {@code out} with the rotor position and when the motor measured it,
+     * empty if there is no motor or the position signal is off
+     *
+     * @return {@code out}
+     */
+    public SignalSample getPositionSample(PositionUnit units, SignalSample out) {
+        if (hasMotor && positionSignal != null) {
+            positionSignal.sample(out, positionScale(units));
+        } else {
+            out.clear();
+        }
+        return out;
+    }
+
+    /**
+     * Fills {@code out} with the rotor velocity and when the motor measured it,
+     * empty if there is no motor or the velocity signal is off
+     *
+     * @return {@code out}
+     */
+    public SignalSample getVelocitySample(VelocityUnit units, SignalSample out) {
+        if (hasMotor && velocitySignal != null) {
+            velocitySignal.sample(out, velocityScale(units));
+        } else {
+            out.clear();
+        }
+        return out;
+    }
+
+    /**
+     * The rotor position extrapolated to now with the velocity, makes up for the time
+     * the position took to arrive. Falls back to the raw position if the velocity signal is off.
+     */
+    public HardwareValueResponse<Double> getPositionCompensated(PositionUnit units) {
+        if (hasMotor && positionSignal != null) {
+            getPositionSample(PositionUnit.REVOLUTIONS, positionSample);
+            getVelocitySample(VelocityUnit.RPS, velocitySample);
             return HardwareValueResponse.contains(
-                    Math.abs(pos - this.getPosition(PositionUnit.REVOLUTIONS).getValue()) < tol);
+                    SignalSample.extrapolate(positionSample, velocitySample) * positionScale(units));
+        }
+        return HardwareValueResponse.empty();
+    }
+
+    public HardwareValueResponse<Boolean> hasMotorReached(PositionUnit units, double value, double tolerance) {
+        if (hasMotor && positionSignal != null) {
+            double pos = toRotations(units, value);
+            double tol = toRotations(units, tolerance);
+            return HardwareValueResponse.contains(Math.abs(pos - positionSignal.getValue()) < tol);
         }
         return HardwareValueResponse.empty();
     }
 
     public HardwareValueResponse<Boolean> hasMotorReached(VelocityUnit units, double value, double tolerance) {
-        if (hasMotor) {
-            Double vel;
-            Double tol;
-            if (units == VelocityUnit.RPS) {
-                vel = value;
-                tol = tolerance;
-            } else if (units == VelocityUnit.RPM) {
-                vel = value / 60.0;
-                tol = tolerance / 60.0;
-            } else if (units == VelocityUnit.TICKS_PER_100MS) {
-                vel = value / 2048.0 / 10.0;
-                tol = tolerance / 2048.0 / 10.0;
-            } else {
-                return HardwareValueResponse.empty();
-            }
-            return HardwareValueResponse.contains(
-                    Math.abs(vel - this.getVelocity(VelocityUnit.RPS).getValue()) < tol);
+        if (hasMotor && velocitySignal != null) {
+            double vel = toRps(units, value);
+            double tol = toRps(units, tolerance);
+            return HardwareValueResponse.contains(Math.abs(vel - velocitySignal.getValue()) < tol);
         }
         return HardwareValueResponse.empty();
     }
 
+    /**
+     * Changes the output configs without blocking the robot thread, null leaves a value as is.
+     * <p>
+     * With the configs on the motor known the changed copy is applied without waiting for a
+     * response through the {@link CanTrafficManager}. While a configerate job runs, or when the
+     * configs aren't known, one job is queued behind it on {@link DeviceConfigurator#background()}
+     * that applies the latest values asked for, calls made before it runs only update those values.
+     */
+    private HardwareSuccessResponse updateOutputConfigs(NeutralModeValue mode, InvertedValue inverted) {
+        if (mode != null) {
+            requestedMode = mode;
+        }
+        if (inverted != null) {
+            requestedInverted = inverted;
+        }
+        var known = outputConfigs;
+        if (known == null || !pendingConfig.isDone()) {
+            return queueOutputConfigs();
+        }
+        if ((mode == null || known.NeutralMode == mode) && (inverted == null || known.Inverted == inverted)) {
+            return HardwareSuccessResponse.success();
+        }
+        // a copy, so a write that waits for the config interval sends the values it was given
+        var cfg = copyOutputConfigs(known, mode, inverted);
+        outputConfigs = cfg;
+        var configurator = motor.getConfigurator();
+        return traffic.writeConfig("MotorOutput", () -> {
+            var status = configurator.apply(cfg, 0.0);
+            if (status.isError() && outputConfigs == cfg) {
+                outputConfigs = null;
+            }
+            return status;
+        });
+    }
+
+    private HardwareSuccessResponse queueOutputConfigs() {
+        if (!outputQueued.compareAndSet(false, true)) {
+            // the queued job reads the requested values when it runs
+            return HardwareSuccessResponse.success();
+        }
+        pendingConfig = pendingConfig.handleAsync((result, error) -> {
+            outputQueued.set(false);
+            var mode = requestedMode;
+            var inverted = requestedInverted;
+            if (mode == null && inverted == null) {
+                return null;
+            }
+            var configurator = motor.getConfigurator();
+            var onMotor = new MotorOutputConfigs();
+            var status = configurator.refresh(onMotor);
+            if (status.isError()) {
+                // applying defaults over an unknown config could cause physical damage
+                DriverStation.reportError("Failed to get motor config on " + traffic.getName(), false);
+                outputConfigs = null;
+                return null;
+            }
+            var cfg = copyOutputConfigs(onMotor, mode, inverted);
+            status = configurator.apply(cfg);
+            if (status.isError()) {
+                DriverStation.reportWarning("Config write MotorOutput failed on " + traffic.getName() + ": "
+                        + status.getName(), false);
+                outputConfigs = null;
+            } else {
+                outputConfigs = cfg;
+            }
+            return null;
+        }, DeviceConfigurator.background());
+        return HardwareSuccessResponse.success();
+    }
+
+    private static MotorOutputConfigs copyOutputConfigs(MotorOutputConfigs from, NeutralModeValue mode,
+            InvertedValue inverted) {
+        var cfg = new MotorOutputConfigs();
+        cfg.Inverted = inverted != null ? inverted : from.Inverted;
+        cfg.NeutralMode = mode != null ? mode : from.NeutralMode;
+        cfg.DutyCycleNeutralDeadband = from.DutyCycleNeutralDeadband;
+        cfg.PeakForwardDutyCycle = from.PeakForwardDutyCycle;
+        cfg.PeakReverseDutyCycle = from.PeakReverseDutyCycle;
+        return cfg;
+    }
+
+    /**
+     * Only writes to the motor if the mode changed, writes are rate limited by
+     * {@link CanTrafficManager} so the change may be applied a few loops later
+     */
     public HardwareSuccessResponse setNeutralMode(NeutralModeValue mode) {
         if (hasMotor) {
-            MotorOutputConfigs cfg = new MotorOutputConfigs();
-            var response = motor.getConfigurator().refresh(cfg);
-            if (response.isError()) {
-                // if we reset the motor cfg to default could cause physical damage, requires a
-                // check
-                DriverStation.reportError("Failed to get motor config", true);
-                throw new RuntimeException("Failed to get motor config");
-            }
-            // cfg.NeutralMode = brake ? NeutralModeValue.Brake : NeutralModeValue.Coast;
-            cfg.NeutralMode = mode;
-            return HardwareSuccessResponse.from(motor.getConfigurator().apply(cfg));
+            return updateOutputConfigs(mode, null);
         }
         return HardwareSuccessResponse.empty();
     }
 
+    /**
+     * Only writes to the motor if the inversion changed, writes are rate limited by
+     * {@link CanTrafficManager} so the change may be applied a few loops later
+     */
     public HardwareSuccessResponse setInverted(boolean inverted) {
         if (hasMotor) {
-            MotorOutputConfigs cfg = new MotorOutputConfigs();
-            var response = motor.getConfigurator().refresh(cfg);
-            if (response.isError()) {
-                // if we reset the motor cfg to default could cause physical damage, requires a
-                // check
-                DriverStation.reportError("Failed to get motor config", true);
-                throw new RuntimeException("Failed to get motor config");
-            }
-            cfg.Inverted = inverted ? InvertedValue.Clockwise_Positive : InvertedValue.CounterClockwise_Positive;
-            return HardwareSuccessResponse.from(motor.getConfigurator().apply(cfg));
+            return updateOutputConfigs(null,
+                    inverted ? InvertedValue.Clockwise_Positive : InvertedValue.CounterClockwise_Positive);
         }
         return HardwareSuccessResponse.empty();
     }
 
     public HardwareSuccessResponse setSensorPosition(PositionUnit units, double pos) {
         if (hasMotor) {
-            Double position;
-            if (units == PositionUnit.REVOLUTIONS) {
-                position = pos;
-            } else if (units == PositionUnit.TICKS) {
-                position = pos / 2048.0;
-            } else if (units == PositionUnit.DEGREES) {
-                position = pos / 360.0;
-            } else if (units == PositionUnit.RADIANS) {
-                position = pos / (2 * Math.PI);
-            } else {
-                position = 0.0;
-            }
+            double position = toRotations(units, pos);
             return HardwareSuccessResponse.from(motor.setRotorPosition(position));
         }
         return HardwareSuccessResponse.empty();
@@ -428,8 +664,10 @@ public class McqTalonFX implements Sendable{
 
     public HardwareSuccessResponse follow(McqTalonFX otherMotor, boolean invertMaster) {
         if (hasMotor && otherMotor.enabled()) {
-            return HardwareSuccessResponse.from(
-                    this.motor.setControl(new Follower(otherMotor.getDeviceID(), invertMaster)));
+            var request = new Follower(otherMotor.getDeviceID(), invertMaster);
+            var status = this.motor.setControl(request);
+            traffic.controlSent(request, status, request.UpdateFreqHz);
+            return HardwareSuccessResponse.from(status);
         }
         return HardwareSuccessResponse.empty();
     }
@@ -439,9 +677,15 @@ public class McqTalonFX implements Sendable{
         builder.setSmartDashboardType("McqTalonFX");
         builder.addBooleanProperty(".enabled", () -> this.enabled(), null);
         if (this.enabled()) {
-            builder.addDoubleProperty("Velocity(RPS)", this.veloStatusValue.asSupplier()::get, null);
-            builder.addDoubleProperty("Position(R)", this.posStatusValue.asSupplier()::get, null);
-            builder.addDoubleProperty("Temperature(C)", this.motor.getDeviceTemp().asSupplier()::get, null);
+            if (velocitySignal != null) {
+                builder.addDoubleProperty("Velocity(RPS)", this.velocitySignal::getValue, null);
+            }
+            if (positionSignal != null) {
+                builder.addDoubleProperty("Position(R)", this.positionSignal::getValue, null);
+            }
+            if (temperatureSignal != null) {
+                builder.addDoubleProperty("Temperature(C)", this.temperatureSignal::getValue, null);
+            }
         }
     }
 
@@ -38,8 +38,12 @@ public class OptionalHardwareUtil {
     }
 
     public static class HardwareValueResponse<T> {
-        private boolean hasHardware;
-        private T value;
+        private static final HardwareValueResponse<?> EMPTY = new HardwareValueResponse<>(false, null);
+        private static final HardwareValueResponse<Boolean> TRUE = new HardwareValueResponse<>(true, true);
+        private static final HardwareValueResponse<Boolean> FALSE = new HardwareValueResponse<>(true, false);
+
+        private final boolean hasHardware;
+        private final T value;
 
         private HardwareValueResponse(boolean hasHardware, T value) {
             this.hasHardware = hasHardware;
@@ -56,11 +60,21 @@ public class OptionalHardwareUtil {
         }
 
 
+        /**
+         * hardware is present, returns a shared instance instead of allocating
+         * 
+         * @param value
+         */
+        public static HardwareValueResponse<Boolean> contains(boolean value) {
+            return value ? TRUE : FALSE;
+        }
+
         /**
          * no hardware present, value is null
          */
+        @SuppressWarnings("unchecked")
         public static <T> HardwareValueResponse<T> empty() {
-            return new HardwareValueResponse<T>(false, null);
+            return (HardwareValueResponse<T>) EMPTY;
         }
 
         /**
@@ -109,8 +123,13 @@ public class OptionalHardwareUtil {
     }
 
     public static class HardwareSuccessResponse {
-        private boolean hasHardware;
-        private boolean success;
+        // immutable, so every call shares these instead of allocating
+        private static final HardwareSuccessResponse SUCCESS = new HardwareSuccessResponse(true, true);
+        private static final HardwareSuccessResponse FAILURE = new HardwareSuccessResponse(true, false);
+        private static final HardwareSuccessResponse EMPTY = new HardwareSuccessResponse(false, false);
+
+        private final boolean hasHardware;
+        private final boolean success;
 
         private HardwareSuccessResponse(boolean hasHardware, boolean success) {
             this.hasHardware = hasHardware;
@@ -124,9 +143,9 @@ public class OptionalHardwareUtil {
          */
         public static HardwareSuccessResponse from(StatusCode errorCode) {
             if (RobotBase.isReal()) {
-                return new HardwareSuccessResponse(true, !errorCode.isError());
+                return errorCode.isError() ? FAILURE : SUCCESS;
             } else {
-                return new HardwareSuccessResponse(true, true);
+                return SUCCESS;
             }
         }
 
@@ -136,21 +155,21 @@ public class OptionalHardwareUtil {
          * @param bool
          */
         public static HardwareSuccessResponse from(Boolean bool) {
-            return new HardwareSuccessResponse(true, bool);
+            return bool ? SUCCESS : FAILURE;
         }
 
         /**
          * hardware is true, success is true
          */
         public static HardwareSuccessResponse success() {
-            return new HardwareSuccessResponse(true, true);
+            return SUCCESS;
         }
 
         /**
          * hardware is false, success is false
          */
         public static HardwareSuccessResponse empty() {
-            return new HardwareSuccessResponse(false, false);
+            return EMPTY;
         }
 
         public boolean hasHardware() {
@@ -177,4 +196,60 @@ public class OptionalHardwareUtil {
             }
         }
     }
+
+    /**
+     * A primitive double version of {@link HardwareValueResponse} that the caller owns
+     * and the hardware wrappers refill, so reading every loop doesn't allocate or box.
+     * Only valid until it is filled again.
+     */
+    public static class DoubleHardwareValue {
+        private boolean hasHardware = false;
+        private double value = 0.0;
+
+        DoubleHardwareValue set(double value) {
+            this.hasHardware = true;
+            this.value = value;
+            return this;
+        }
+
+        DoubleHardwareValue clear() {
+            this.hasHardware = false;
+            this.value = 0.0;
+            return this;
+        }
+
+        /**
+         * @return whether or not the hardware is present
+         */
+        public boolean hasHardware() {
+            return hasHardware;
+        }
+
+        /**
+         * @return The value, 0 if hasHardware is false
+         */
+        public double getValue() {
+            return value;
+        }
+
+        /**
+         * @param defaultValue
+         * @return The value if hasHardware is true, otherwise defaultValue
+         */
+        public double getValueDefault(double defaultValue) {
+            return hasHardware ? value : defaultValue;
+        }
+
+        /**
+         * If hasHardware is false, throws a RuntimeException
+         * 
+         * @return The value if hasHardware is true
+         */
+        public double getValueThrow() {
+            if (!hasHardware) {
+                throw new RuntimeException("Hardware Is Empty");
+            }
+            return value;
+        }
+    }
 }
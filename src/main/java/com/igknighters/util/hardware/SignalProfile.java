@@ -0,0 +1,96 @@
+package com.igknighters.util.hardware;
+
+import java.util.EnumMap;
+
+/**
+ * Declares which status signals a hardware wrapper uses and how often the device should send them.
+ * <p>
+ * The wrapper applies the profile when it's constructed. Signals that aren't in the profile
+ * are turned off on the device and not refreshed, and getters that need them return empty.
+ * Profiles are immutable, {@link #with} returns a copy, so they can be shared as constants.
+ *
+ * <pre>{@code
+ * public static final SignalProfile kShooterSignals = SignalProfile.none()
+ *         .with(Signal.Velocity, 250)
+ *         .with(Signal.Temperature, 4);
+ * McqTalonFX shooter = new McqTalonFX(12, true, kShooterSignals);
+ * }</pre>
+ */
+public class SignalProfile {
+    public enum Signal {
+        Velocity,
+        /** Rotor position on a TalonFX */
+        Position,
+        /** CANcoder only */
+        AbsolutePosition,
+        /** TalonFX only */
+        TorqueCurrent,
+        /** TalonFX only */
+        Temperature
+    }
+
+    /** Turns the signal off */
+    public static final double kOff = 0.0;
+    public static final double kMinHz = 4.0;
+    public static final double kMaxHz = 1000.0;
+
+    private final EnumMap<Signal, Double> rates;
+
+    private SignalProfile(EnumMap<Signal, Double> rates) {
+        this.rates = rates;
+    }
+
+    /** @return a profile with every signal off */
+    public static SignalProfile none() {
+        return new SignalProfile(new EnumMap<>(Signal.class));
+    }
+
+    /** What {@link McqTalonFX} uses when not given a profile */
+    public static SignalProfile talonFXDefault() {
+        return none()
+                .with(Signal.Velocity, 100)
+                .with(Signal.Position, 100)
+                .with(Signal.TorqueCurrent, 50)
+                .with(Signal.Temperature, 4);
+    }
+
+    /** What {@link McqCanCoder} uses when not given a profile */
+    public static SignalProfile canCoderDefault() {
+        return none()
+                .with(Signal.Velocity, 100)
+                .with(Signal.Position, 100)
+                .with(Signal.AbsolutePosition, 100);
+    }
+
+    /**
+     * @param hz {@link #kOff} or between {@link #kMinHz} and {@link #kMaxHz}
+     * @return a copy of this profile with the signal's rate set
+     */
+    public SignalProfile with(Signal signal, double hz) {
+        if (hz != kOff && (hz < kMinHz || hz > kMaxHz)) {
+            throw new IllegalArgumentException(
+                    signal + " rate must be 0 or between " + kMinHz + " and " + kMaxHz + "hz, got " + hz);
+        }
+        var copy = new EnumMap<>(rates);
+        if (hz == kOff) {
+            copy.remove(signal);
+        } else {
+            copy.put(signal, hz);
+        }
+        return new SignalProfile(copy);
+    }
+
+    /** @return the signal's rate, {@link #kOff} if the profile doesn't use it */
+    public double getHz(Signal signal) {
+        return rates.getOrDefault(signal, kOff);
+    }
+
+    public boolean isEnabled(Signal signal) {
+        return rates.containsKey(signal);
+    }
+
+    @Override
+    public String toString() {
+        return "SignalProfile" + rates;
+    }
+}
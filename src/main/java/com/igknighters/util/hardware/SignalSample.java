@@ -0,0 +1,89 @@
+package com.igknighters.util.hardware;
+
+import com.ctre.phoenixpro.Utils;
+
+/**
+ * A status signal value together with when the device measured it.
+ * <p>
+ * Meant to be allocated once and refilled by the {@code get*Sample} methods on the
+ * hardware wrappers, so reading a sample every loop doesn't allocate.
+ * Timestamps are in the Phoenix time base, see {@link Utils#getCurrentTimeSeconds()}.
+ *
+ * <pre>{@code
+ * private final SignalSample position = new SignalSample();
+ * private final SignalSample velocity = new SignalSample();
+ * // periodic
+ * motor.getPositionSample(PositionUnit.REVOLUTIONS, position);
+ * motor.getVelocitySample(VelocityUnit.RPS, velocity);
+ * double now = SignalSample.extrapolate(position, velocity);
+ * }</pre>
+ */
+public class SignalSample {
+    private boolean hasValue = false;
+    private double value = 0.0;
+    private double timestamp = 0.0;
+    private double age = 0.0;
+
+    /** Fills the sample, age is measured against now */
+    void set(double value, double timestamp) {
+        this.hasValue = true;
+        this.value = value;
+        this.timestamp = timestamp;
+        this.age = Utils.getCurrentTimeSeconds() - timestamp;
+    }
+
+    /** For when there is no hardware or the signal is turned off */
+    void clear() {
+        hasValue = false;
+        value = 0.0;
+        timestamp = 0.0;
+        age = 0.0;
+    }
+
+    /** @return false if there is no hardware or the signal is off, the rest is meaningless then */
+    public boolean hasValue() {
+        return hasValue;
+    }
+
+    public double getValue() {
+        return value;
+    }
+
+    /** @return when the device measured the value in seconds */
+    public double getTimestamp() {
+        return timestamp;
+    }
+
+    /** @return how old the value was in seconds when the sample was filled */
+    public double getAge() {
+        return age;
+    }
+
+    /**
+     * Projects a position forward to now using its velocity, the two have to be in matching units
+     * (rotations and rotations per second, degrees and degrees per second, ...)
+     *
+     * @return the extrapolated position, or the position as is if the velocity has no value
+     */
+    public static double extrapolate(SignalSample position, SignalSample velocity) {
+        return extrapolate(position, velocity, Utils.getCurrentTimeSeconds());
+    }
+
+    /**
+     * Projects a position forward to {@code time} using its velocity, the two have to be in
+     * matching units
+     *
+     * @param time in the Phoenix time base
+     */
+    public static double extrapolate(SignalSample position, SignalSample velocity, double time) {
+        if (!velocity.hasValue) {
+            return position.value;
+        }
+        return position.value + velocity.value * (time - position.timestamp);
+    }
+
+    @Override
+    public String toString() {
+        return hasValue ? "SignalSample(" + value + " @ " + timestamp + ", age " + age + "s)" : "SignalSample(empty)";
+    }
+}
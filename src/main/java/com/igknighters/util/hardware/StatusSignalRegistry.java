@@ -0,0 +1,73 @@
+package com.igknighters.util.hardware;
+
+import java.util.Arrays;
+
+import com.ctre.phoenixpro.BaseStatusSignalValue;
+import com.ctre.phoenixpro.StatusSignalValue;
+import com.igknighters.util.LoopProfiler;
+
+import edu.wpi.first.wpilibj.DriverStation;
+
+/**
+ * Refreshes every registered device status signal with one batched call at the
+ * start of each loop, so getters on the hardware wrappers only read a cached sample
+ * instead of each waiting on CAN.
+ */
+public class StatusSignalRegistry {
+    private static BaseStatusSignalValue[] signals = new BaseStatusSignalValue[0];
+    private static CachedSignal[] cached = new CachedSignal[0];
+    private static double waitTimeout = 0.0;
+    private static final int timerId = LoopProfiler.register("StatusSignals");
+
+    /** Registers a signal for the batched refresh, only call from the robot thread */
+    public static CachedSignal register(StatusSignalValue<Double> signal) {
+        var out = new CachedSignal(signal);
+        signals = Arrays.copyOf(signals, signals.length + 1);
+        signals[signals.length - 1] = signal;
+        cached = Arrays.copyOf(cached, cached.length + 1);
+        cached[cached.length - 1] = out;
+        return out;
+    }
+
+    /**
+     * Sets the signal's update frequency on the device and registers it if it's on
+     *
+     * @param hz the rate to send the signal at, {@link SignalProfile#kOff} turns it off
+     * @param traffic the device's traffic record, gets the rate added to its estimate
+     * @return the cached signal, null if it was turned off
+     */
+    public static CachedSignal register(StatusSignalValue<Double> signal, double hz,
+            CanTrafficManager.Device traffic) {
+        var status = signal.setUpdateFrequency(hz);
+        if (status != null && status.isError()) {
+            DriverStation.reportWarning("Failed to set " + signal.getName() + " to " + hz + "hz on "
+                    + traffic.getName() + ": " + status.getName(), false);
+        }
+        if (hz == SignalProfile.kOff) {
+            return null;
+        }
+        traffic.addStatusSignal(hz);
+        return register(signal);
+    }
+
+    /**
+     * How long the refresh may wait for every signal to get a new frame,
+     * 0 (the default) only takes whatever arrived since the last loop and never blocks
+     */
+    public static void setWaitTimeout(double seconds) {
+        waitTimeout = Math.max(0.0, seconds);
+    }
+
+    /** Called by the robot at the start of every loop */
+    public static void refreshAll() {
+        if (signals.length == 0) {
+            return;
+        }
+        LoopProfiler.start(timerId);
+        BaseStatusSignalValue.waitForAll(waitTimeout, signals);
+        for (int i = 0; i < cached.length; i++) {
+            cached[i].update();
+        }
+        LoopProfiler.end(timerId);
+    }
+}
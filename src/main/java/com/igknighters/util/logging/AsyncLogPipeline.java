@@ -0,0 +1,186 @@
+package com.igknighters.util.logging;
+
+import java.util.Arrays;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+import com.igknighters.util.UtilPeriodic;
+
+import edu.wpi.first.util.WPIUtilJNI;
+import edu.wpi.first.wpilibj.DriverStation;
+
+/**
+ * Moves log output off the robot thread.
+ * <p>
+ * Every cycle the robot thread calls {@link Stage#sample(int)} on each stage, which only
+ * copies the current values into a preallocated slot of a ring buffer. A dedicated
+ * thread then calls {@link Stage#flush(int, long)} to do the actual datalog appends
+ * and NetworkTables publishing from that slot.
+ * <p>
+ * If the log thread falls a whole ring behind the cycle is dropped instead of
+ * blocking the robot thread, see {@link #getDroppedSamples()}.
+ */
+public class AsyncLogPipeline {
+    /** How many cycles can be waiting on the log thread at once */
+    public static final int SLOTS = 16;
+
+    /**
+     * A unit of log output that is split into a cheap sampling half and
+     * an expensive publishing half.
+     * <p>
+     * A slot is never sampled and flushed at the same time, so anything stored
+     * per slot needs no synchronization.
+     */
+    public interface Stage {
+        /** Robot thread, copy the current values into the slot. Must not block */
+        void sample(int slot);
+
+        /** Log thread, write out the values stored in the slot */
+        void flush(int slot, long timestampUs);
+    }
+
+    private static volatile Stage[] stages = new Stage[0];
+    private static final Stage[][] slotStages = new Stage[SLOTS][];
+    private static final long[] slotTimestamps = new long[SLOTS];
+
+    // head is only written by the robot thread, tail only by the log thread
+    private static volatile long head = 0;
+    private static volatile long tail = 0;
+    private static long droppedSamples = 0;
+
+    private static final Thread thread = new Thread(AsyncLogPipeline::run, "LogPipeline");
+    static {
+        thread.setDaemon(true);
+        thread.setPriority(Thread.NORM_PRIORITY - 1);
+        thread.start();
+        UtilPeriodic.addPeriodicRunnable("LogPipeline", AsyncLogPipeline::sample);
+    }
+
+    /** Stages added later only start getting sampled the next cycle */
+    public static synchronized void addStage(Stage stage) {
+        Stage[] newStages = Arrays.copyOf(stages, stages.length + 1);
+        newStages[stages.length] = stage;
+        stages = newStages;
+    }
+
+    /** Robot thread, snapshots every stage into the next free slot */
+    public static void sample() {
+        long h = head;
+        if (h - tail >= SLOTS) {
+            droppedSamples++;
+            return;
+        }
+        int slot = (int) (h % SLOTS);
+        Stage[] current = stages;
+        for (int i = 0; i < current.length; i++) {
+            current[i].sample(slot);
+        }
+        slotStages[slot] = current;
+        slotTimestamps[slot] = WPIUtilJNI.now();
+        head = h + 1;
+        LockSupport.unpark(thread);
+    }
+
+    /** @return how many cycles were skipped because the log thread was behind */
+    public static long getDroppedSamples() {
+        return droppedSamples;
+    }
+
+    private static void run() {
+        while (true) {
+            long t = tail;
+            if (t == head) {
+                LockSupport.park(AsyncLogPipeline.class);
+                continue;
+            }
+            int slot = (int) (t % SLOTS);
+            Stage[] current = slotStages[slot];
+            long timestamp = slotTimestamps[slot];
+            for (int i = 0; i < current.length; i++) {
+                try {
+                    current[i].flush(slot, timestamp);
+                } catch (RuntimeException e) {
+                    DriverStation.reportError("Log pipeline stage failed: " + e.getMessage(), e.getStackTrace());
+                }
+            }
+            tail = t + 1;
+        }
+    }
+
+    /**
+     * A stage of plain suppliers and the sink each value gets published to,
+     * used for NetworkTables output where the value has to be read on the robot
+     * thread but the publishing can happen anywhere.
+     * <p>
+     * Values are stored by reference, so suppliers should not hand out
+     * arrays they mutate afterwards.
+     */
+    public static class SupplierStage implements Stage {
+        private final int divisor;
+        private int cycle = 0;
+        private boolean enabled = true;
+
+        // robot thread
+        private Supplier<?>[] suppliers = new Supplier<?>[8];
+        private Consumer<?>[] sinks = new Consumer<?>[8];
+        private int count = 0;
+
+        private final Object[][] slotValues = new Object[SLOTS][8];
+        private final Consumer<?>[][] slotSinks = new Consumer<?>[SLOTS][];
+        private final int[] slotCounts = new int[SLOTS];
+
+        public SupplierStage() {
+            this(1);
+        }
+
+        /** @param divisor only sample every n-th cycle */
+        public SupplierStage(int divisor) {
+            this.divisor = Math.max(1, divisor);
+        }
+
+        /** A disabled stage samples nothing, robot thread only */
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public <T> void add(Supplier<T> supplier, Consumer<T> sink) {
+            if (count == suppliers.length) {
+                suppliers = Arrays.copyOf(suppliers, count * 2);
+                sinks = Arrays.copyOf(sinks, count * 2);
+            }
+            suppliers[count] = supplier;
+            sinks[count] = sink;
+            count++;
+        }
+
+        @Override
+        public void sample(int slot) {
+            if (cycle++ % divisor != 0 || !enabled) {
+                slotCounts[slot] = 0;
+                return;
+            }
+            Object[] values = slotValues[slot];
+            if (values.length < count) {
+                values = new Object[suppliers.length];
+                slotValues[slot] = values;
+            }
+            for (int i = 0; i < count; i++) {
+                values[i] = suppliers[i].get();
+            }
+            slotSinks[slot] = sinks;
+            slotCounts[slot] = count;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public void flush(int slot, long timestampUs) {
+            Object[] values = slotValues[slot];
+            Consumer<?>[] currentSinks = slotSinks[slot];
+            for (int i = 0; i < slotCounts[slot]; i++) {
+                ((Consumer<Object>) currentSinks[i]).accept(values[i]);
+                values[i] = null;
+            }
+        }
+    }
+}
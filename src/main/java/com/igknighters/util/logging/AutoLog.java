@@ -5,21 +5,18 @@ import java.lang.annotation.Retention;
 import java.lang.annotation.RetentionPolicy;
 import java.lang.annotation.Target;
 import java.lang.reflect.Field;
-import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
-import java.util.Collection;
 import java.util.HashMap;
-import java.util.LinkedHashSet;
 import java.util.Map;
 import java.util.function.Supplier;
 
 import com.igknighters.constants.ConstValues;
-import com.igknighters.util.UtilPeriodic;
 import com.igknighters.util.testing.TunableValuesAPI;
 import com.igknighters.util.logging.McqShuffleboardApi.MetadataFields;
-import com.igknighters.util.UtilPeriodic.Frequency;
 
+import edu.wpi.first.networktables.NetworkTable;
 import edu.wpi.first.networktables.NetworkTableEntry;
+import edu.wpi.first.networktables.NetworkTableInstance;
 import edu.wpi.first.wpilibj.DriverStation;
 import edu.wpi.first.wpilibj.smartdashboard.SmartDashboard;
 import edu.wpi.first.wpilibj2.command.Subsystem;
@@ -28,10 +25,11 @@ import edu.wpi.first.util.sendable.Sendable;
 
 public class AutoLog {
 
-    private static final Collection<Runnable> smartdashboardRunnables = new LinkedHashSet<>();
+    /** Sampled every other cycle, published from the log thread */
+    private static final AsyncLogPipeline.SupplierStage smartdashboardStage = new AsyncLogPipeline.SupplierStage(2);
+    private static final NetworkTable smartDashboardTable = NetworkTableInstance.getDefault().getTable("SmartDashboard");
     static {
-        UtilPeriodic.addPeriodicRunnable(
-            "AutologSmartDashboard", () -> smartdashboardRunnables.forEach(Runnable::run), Frequency.EveryOtherCycle);
+        AsyncLogPipeline.addStage(smartdashboardStage);
     }
 
     /**
@@ -70,7 +68,7 @@ public class AutoLog {
          * Annotate a field or method IN A SUBSYSTEM with this to log it to shuffleboard
          * 
          * <p> Supported Types(primitive or not): Double, Boolean, String, Integer, <br>
-         * Double[], Boolean[], String[], Integer[], Sendable
+         * double[], boolean[], String[], Sendable
          * 
          * @param pos    [optional] the position of the widget on the shuffleboard
          * @param size   [optional] the size of the widget on the shuffleboard
@@ -92,7 +90,7 @@ public class AutoLog {
          * Annotate a field or method IN A SUBSYSTEM with this to log it to datalog
          * 
          * <p> Supported Types(primitive or not): Double, Boolean, String, Integer, <br>
-         * Double[], Boolean[], String[], Integer[], Sendable
+         * double[], boolean[], String[], Sendable
          * 
          * @param Path    [optional] the path to log to
          * @param oneShot [optional] whether or not to only log once
@@ -110,7 +108,7 @@ public class AutoLog {
          * SmartDashboard
          * 
          * <p> Supported Types(primitive or not): Double, Boolean, String, Integer, <br>
-         * Double[], Boolean[], String[], Integer[], Sendable
+         * double[], boolean[], String[], Sendable
          * 
          * @param oneShot [optional] whether or not to only log once
          */
@@ -149,11 +147,8 @@ public class AutoLog {
         }
 
         public static DataType fromClass(Class<?> clazz) throws IllegalArgumentException {
-            // if clazz has Sendable interace
-            for (Class<?> cls : clazz.getInterfaces()) {
-                if (cls.equals(Sendable.class)) {
-                    return Sendable;
-                }
+            if (Sendable.class.isAssignableFrom(clazz)) {
+                return Sendable;
             }
             clazz = complexFromPrim(clazz);
             if (clazz.equals(Double.class)) {
@@ -200,42 +195,21 @@ public class AutoLog {
         }
     }
 
-    private static Supplier<?> getSupplier(Field field, Subsystem subsystem) {
-        return () -> {
-            try {
-                return field.get(subsystem);
-            } catch (IllegalArgumentException | IllegalAccessException e) {
-                DriverStation.reportWarning(field.getName() + " supllier is erroring", false);
-                return null;
-            }
-        };
-    }
-
-    private static Supplier<?> getSupplier(Method method, Subsystem subsystem) {
-        return () -> {
-            try {
-                return method.invoke(subsystem);
-            } catch (IllegalAccessException | IllegalArgumentException | InvocationTargetException e) {
-                DriverStation.reportWarning(method.getName() + " supllier is erroring", false);
-                return null;
-            }
-        };
-    }
-
-    private static void dataLoggerHelper(Supplier<?> supplier, DataType type, String path, boolean oneShot) {
+    private static void dataLoggerHelper(MemberAccessor accessor, DataType type, String path, boolean oneShot) {
+        Supplier<?> supplier = accessor.asObject();
         switch (type) {
             case Double:
                 if (oneShot) {
                     DataLogger.oneShotDouble(path, (Double) supplier.get());
                 } else {
-                    DataLogger.addDouble(path, () -> (Double) supplier.get());
+                    DataLogger.addDouble(path, accessor.asDouble());
                 }
                 break;
             case Boolean:
                 if (oneShot) {
                     DataLogger.oneShotBoolean(path, (Boolean) supplier.get());
                 } else {
-                    DataLogger.addBoolean(path, () -> (Boolean) supplier.get());
+                    DataLogger.addBoolean(path, accessor.asBoolean());
                 }
                 break;
             case String:
@@ -247,9 +221,9 @@ public class AutoLog {
                 break;
             case Integer:
                 if (oneShot) {
-                    DataLogger.oneShotInteger(path, (Long) supplier.get());
+                    DataLogger.oneShotInteger(path, ((Number) supplier.get()).longValue());
                 } else {
-                    DataLogger.addInteger(path, () -> (Long) supplier.get());
+                    DataLogger.addInteger(path, accessor.asLong());
                 }
                 break;
             case DoubleArray:
@@ -285,88 +259,70 @@ public class AutoLog {
         }
     }
 
-    private static void smartDashboardHelper(Supplier<?> supplier, DataType type, String keyPath, Boolean oneShot) {
+    private static void smartDashboardHelper(MemberAccessor accessor, DataType type, String keyPath, Boolean oneShot) {
+        Supplier<?> supplier = accessor.asObject();
+        if (!oneShot) {
+            var publisher = CachedPublisher.of(smartDashboardTable, keyPath, publishedClass(type));
+            smartdashboardStage.add(supplier, publisher::accept);
+            return;
+        }
         switch (type) {
             case Double:
-                if (oneShot) {
-                    SmartDashboard.putNumber(keyPath, (Double) supplier.get());
-                } else {
-                    smartdashboardRunnables.add(() -> {
-                        SmartDashboard.putNumber(keyPath, (Double) supplier.get());
-                    });
-                }
+                SmartDashboard.putNumber(keyPath, (Double) supplier.get());
                 break;
             case Boolean:
-                if (oneShot) {
-                    SmartDashboard.putBoolean(keyPath, (Boolean) supplier.get());
-                } else {
-                    smartdashboardRunnables.add(() -> {
-                        SmartDashboard.putBoolean(keyPath, (Boolean) supplier.get());
-                    });
-                }
+                SmartDashboard.putBoolean(keyPath, (Boolean) supplier.get());
                 break;
             case String:
-                if (oneShot) {
-                    SmartDashboard.putString(keyPath, (String) supplier.get());
-                } else {
-                    smartdashboardRunnables.add(() -> {
-                        SmartDashboard.putString(keyPath, (String) supplier.get());
-                    });
-                }
+                SmartDashboard.putString(keyPath, (String) supplier.get());
                 break;
             case Integer:
-                if (oneShot) {
-                    SmartDashboard.putNumber(keyPath, (Integer) supplier.get());
-                } else {
-                    smartdashboardRunnables.add(() -> {
-                        SmartDashboard.putNumber(keyPath, (Integer) supplier.get());
-                    });
-                }
+                SmartDashboard.putNumber(keyPath, (Integer) supplier.get());
                 break;
             case DoubleArray:
-                if (oneShot) {
-                    SmartDashboard.putNumberArray(keyPath, (double[]) supplier.get());
-                } else {
-                    smartdashboardRunnables.add(() -> {
-                        SmartDashboard.putNumberArray(keyPath, (double[]) supplier.get());
-                    });
-                }
+                SmartDashboard.putNumberArray(keyPath, (double[]) supplier.get());
                 break;
             case BooleanArray:
-                if (oneShot) {
-                    SmartDashboard.putBooleanArray(keyPath, (boolean[]) supplier.get());
-                } else {
-                    smartdashboardRunnables.add(() -> {
-                        SmartDashboard.putBooleanArray(keyPath, (boolean[]) supplier.get());
-                    });
-                }
+                SmartDashboard.putBooleanArray(keyPath, (boolean[]) supplier.get());
                 break;
             case StringArray:
-                if (oneShot) {
-                    SmartDashboard.putStringArray(keyPath, (String[]) supplier.get());
-                } else {
-                    smartdashboardRunnables.add(() -> {
-                        SmartDashboard.putStringArray(keyPath, (String[]) supplier.get());
-                    });
-                }
+                SmartDashboard.putStringArray(keyPath, (String[]) supplier.get());
                 break;
             case IntegerArray:
-                if (oneShot) {
-                    SmartDashboard.putNumberArray(keyPath, (double[]) supplier.get());
-                } else {
-                    smartdashboardRunnables.add(() -> {
-                        SmartDashboard.putNumberArray(keyPath, (double[]) supplier.get());
-                    });
-                }
+                CachedPublisher.of(smartDashboardTable, keyPath, int[].class).accept(supplier.get());
                 break;
             default:
                 throw new IllegalArgumentException("Invalid data type");
         }
     }
 
-    private static void shuffleboardWidgetHelper(Supplier<?> supplier, DataType type, String f_name, String ss_name,
+    /** The type the member's values have at runtime */
+    private static Class<?> publishedClass(DataType type) {
+        switch (type) {
+            case Double:
+                return double.class;
+            case Boolean:
+                return boolean.class;
+            case String:
+                return String.class;
+            case Integer:
+                return int.class;
+            case DoubleArray:
+                return double[].class;
+            case BooleanArray:
+                return boolean[].class;
+            case StringArray:
+                return String[].class;
+            case IntegerArray:
+                return int[].class;
+            default:
+                throw new IllegalArgumentException("Invalid data type");
+        }
+    }
+
+    private static void shuffleboardWidgetHelper(MemberAccessor accessor, DataType type, String f_name, String ss_name,
             AL.Shuffleboard annotation) {
-        McqShuffleboardApi.ShuffleEntry entry = McqShuffleboardApi.getTab(ss_name).addEntry(f_name, supplier);
+        McqShuffleboardApi.ShuffleEntry entry = McqShuffleboardApi.getTab(ss_name).addEntry(f_name, accessor.asObject());
         Map<MetadataFields, Object> metadata = new HashMap<>();
         if (annotation.pos().length > 0) {
             metadata.put(MetadataFields.Position, new double[] { annotation.pos()[0], annotation.pos()[1] });
@@ -380,6 +336,14 @@ public class AutoLog {
         entry.applyMetadata(metadata);
     }
 
+    private static void setTunable(Field field, Subsystem subsystem, String key, Object value) {
+        try {
+            field.set(subsystem, value);
+        } catch (IllegalArgumentException | IllegalAccessException e) {
+            DriverStation.reportError("Error setting Tunable value for " + key, false);
+        }
+    }
+
     public static void setupSubsystemLogging(Subsystem subsystem) {
         String ss_name = subsystem.getClass().getSimpleName();
         if (ConstValues.DEBUG) {
@@ -398,11 +362,14 @@ public class AutoLog {
                 continue;
             }
             if (field.isAnnotationPresent(AL.Tunable.class)) {
+                field.setAccessible(true);
+                String f_name = field.getName();
+                String key = ss_name + "/" + f_name;
                 if (!ConstValues.DEBUG) {
+                    // not published but values tuned earlier still apply
+                    TunableValuesAPI.applySaved(key, value -> setTunable(field, subsystem, key, value));
                     continue;
                 }
-                field.setAccessible(true);
-                String f_name = field.getName();
                 if (!(field.getType() == boolean.class || field.getType() == double.class)) {
                     throw new IllegalArgumentException("Invalid Tunable type: " + ss_name + "." + f_name);
                 }
@@ -420,14 +387,7 @@ public class AutoLog {
                         DriverStation.reportError("Error initializing Tunable value: " + ss_name + "." + f_name, false);
                         continue;
                     }
-                    TunableValuesAPI.addTunableRunnable(() -> {
-                        try {
-                            field.set(subsystem, entry.getValue().getValue());
-                        } catch (IllegalArgumentException | IllegalAccessException e) {
-                            DriverStation.reportError("Error setting Tunable SmartDashboard value for " + ss_name + "/" + f_name,
-                                    false);
-                        }
-                    });
+                    TunableValuesAPI.addPersistentTunable(key, entry, value -> setTunable(field, subsystem, key, value));
                     loggerPort = "SmartDashboard";
                 }
                 if (field.isAnnotationPresent(AL.Shuffleboard.class)) {
@@ -457,14 +417,7 @@ public class AutoLog {
                             false);
                         continue;
                     }
-                    TunableValuesAPI.addTunableRunnable(() -> {
-                        try {
-                            field.set(subsystem, entry.getValue().getValue());
-                        } catch (IllegalArgumentException | IllegalAccessException e) {
-                            DriverStation.reportError("Error setting Tunable Shuffleboard value for " + ss_name + "/" + f_name,
-                                    false);
-                        }
-                    });
+                    TunableValuesAPI.addPersistentTunable(key, entry, value -> setTunable(field, subsystem, key, value));
                     loggerPort = "Shuffleboard";
                 }
                 if (loggerPort == "") {
@@ -476,13 +429,7 @@ public class AutoLog {
                         DriverStation.reportError("Error initializing Tunable value: " + ss_name + "." + f_name, false);
                         continue;
                     }
-                    TunableValuesAPI.addTunableRunnable(() -> {
-                        try {
-                            field.set(subsystem, entry.getValue().getValue());
-                        } catch (IllegalArgumentException | IllegalAccessException e) {
-                            DriverStation.reportError("Error setting Tunable value for " + ss_name + "/" + f_name, false);
-                        }
-                    });
+                    TunableValuesAPI.addPersistentTunable(key, entry, value -> setTunable(field, subsystem, key, value));
                 }
             } else {
                 String loggerPort = "";
@@ -494,9 +441,9 @@ public class AutoLog {
                     boolean oneShot = annotation.oneShot();
                     DataType type = DataType.fromClass(field.getType());
                     if (type == DataType.Sendable) {
-                        DataLogger.addSendable((Sendable) getSupplier(field, subsystem).get(), ss_name, name);
+                        DataLogger.addSendable((Sendable) MemberAccessor.of(field, subsystem).get(), ss_name, name);
                     } else {
-                        dataLoggerHelper(getSupplier(field, subsystem), type, path, oneShot);
+                        dataLoggerHelper(MemberAccessor.of(field, subsystem), type, path, oneShot);
                     }
                     loggerPort = "DataLog";
                 }
@@ -510,9 +457,9 @@ public class AutoLog {
                     String key = ss_name + "." + field.getName();
                     DataType type = DataType.fromClass(field.getType());
                     if (type == DataType.Sendable) {
-                        SmartDashboard.putData(key, (Sendable) getSupplier(field, subsystem).get());
+                        SmartDashboard.putData(key, (Sendable) MemberAccessor.of(field, subsystem).get());
                     } else {
-                        smartDashboardHelper(getSupplier(field, subsystem), type, key, annotation.oneShot());
+                        smartDashboardHelper(MemberAccessor.of(field, subsystem), type, key, annotation.oneShot());
                     }
                     loggerPort = "SmartDashboard";
                 }
@@ -527,9 +474,9 @@ public class AutoLog {
                     DataType type = DataType.fromClass(field.getType());
                     if (ConstValues.DEBUG) {
                         if (type == DataType.Sendable) {
-                            McqShuffleboardApi.getTab(ss_name).addSendable(name, (Sendable) getSupplier(field, subsystem).get());
+                            McqShuffleboardApi.getTab(ss_name).addSendable(name, (Sendable) MemberAccessor.of(field, subsystem).get());
                         } else {
-                            shuffleboardWidgetHelper(getSupplier(field, subsystem), type, name, ss_name, annotation);
+                            shuffleboardWidgetHelper(MemberAccessor.of(field, subsystem), type, name, ss_name, annotation);
                         }
                     } else {
                         String path = "";
@@ -539,9 +486,9 @@ public class AutoLog {
                             path = ss_name + "/" + name;
                         }
                         if (type == DataType.Sendable) {
-                            DataLogger.addSendable((Sendable) getSupplier(field, subsystem).get(), path, name);
+                            DataLogger.addSendable((Sendable) MemberAccessor.of(field, subsystem).get(), path, name);
                         } else {
-                            dataLoggerHelper(getSupplier(field, subsystem), type, path, false);
+                            dataLoggerHelper(MemberAccessor.of(field, subsystem), type, path, false);
                         }
                     }
                     loggerPort = "Shuffleboard";
@@ -560,7 +507,7 @@ public class AutoLog {
                 if (method.getParameterCount() > 0) {
                     throw new IllegalArgumentException("Cannot have parameters on a DataLog method");
                 }
-                dataLoggerHelper(getSupplier(method, subsystem), type, path, oneShot);
+                dataLoggerHelper(MemberAccessor.of(method, subsystem), type, path, oneShot);
                 loggerPort = "DataLog";
             }
             if (method.isAnnotationPresent(AL.SmartDashboard.class)) {
@@ -575,7 +522,7 @@ public class AutoLog {
                 if (method.getParameterCount() > 0) {
                     throw new IllegalArgumentException("Cannot have parameters on a DataLog method");
                 }
-                smartDashboardHelper(getSupplier(method, subsystem), type, key, annotation.oneShot());
+                smartDashboardHelper(MemberAccessor.of(method, subsystem), type, key, annotation.oneShot());
                 loggerPort = "SmartDashboard";
             }
             if (method.isAnnotationPresent(AL.Shuffleboard.class)) {
@@ -591,7 +538,7 @@ public class AutoLog {
                 }
                 DataType type = DataType.fromClass(method.getReturnType());
                 if (ConstValues.DEBUG) {
-                    shuffleboardWidgetHelper(getSupplier(method, subsystem), type, name, ss_name, annotation);
+                    shuffleboardWidgetHelper(MemberAccessor.of(method, subsystem), type, name, ss_name, annotation);
                 } else {
                     String path = "";
                     if (datalogKeepsShuffleboardPath) {
@@ -599,7 +546,7 @@ public class AutoLog {
                     } else {
                         path = ss_name + "/" + name;
                     }
-                    dataLoggerHelper(getSupplier(method, subsystem), type, path, false);
+                    dataLoggerHelper(MemberAccessor.of(method, subsystem), type, path, false);
                 }
                 loggerPort = "Shuffleboard";
             }
@@ -0,0 +1,246 @@
+package com.igknighters.util.logging;
+
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.function.BiPredicate;
+import java.util.function.Consumer;
+import java.util.function.UnaryOperator;
+
+import edu.wpi.first.networktables.BooleanPublisher;
+import edu.wpi.first.networktables.DoublePublisher;
+import edu.wpi.first.networktables.NetworkTable;
+import edu.wpi.first.networktables.NetworkTableEntry;
+import edu.wpi.first.networktables.Publisher;
+import edu.wpi.first.networktables.StringPublisher;
+import edu.wpi.first.util.WPIUtilJNI;
+
+/**
+ * A typed NT4 publisher created once when a value is registered, so publishing
+ * is neither a string keyed lookup nor a boxed {@code setValue}.
+ * <p>
+ * A value equal to the last one sent is skipped, and with {@link #withPeriod(double)}
+ * the topic is sent at most once per period. Sinks are called every cycle so a change
+ * held back by the period goes out as soon as the period is over.
+ * Not thread safe, publish to one from a single thread.
+ */
+public abstract class CachedPublisher implements Consumer<Object>, AutoCloseable {
+    // set from the robot thread, read where it publishes
+    private volatile long periodUs = 0;
+    private long lastSentUs = Long.MIN_VALUE;
+
+    /** Sends at most once every period, 0 sends every change */
+    public CachedPublisher withPeriod(double seconds) {
+        periodUs = (long) (seconds * 1_000_000.0);
+        return this;
+    }
+
+    /** @return whether the period allows a send now, marks it as sent if it does */
+    protected final boolean due() {
+        if (periodUs <= 0) {
+            return true;
+        }
+        long now = WPIUtilJNI.now();
+        if (lastSentUs != Long.MIN_VALUE && now - lastSentUs < periodUs) {
+            return false;
+        }
+        lastSentUs = now;
+        return true;
+    }
+
+    /**
+     * Creates the publisher for a value of the given type, numbers are published as
+     * doubles the same as {@code SmartDashboard.putNumber}. Types without a typed
+     * publisher fall back to {@link NetworkTableEntry#setValue(Object)}.
+     */
+    public static CachedPublisher of(NetworkTable table, String name, Class<?> type) {
+        if (type == double.class || type == float.class || type == int.class || type == long.class
+                || type == short.class || Number.class.isAssignableFrom(type)) {
+            return ofDouble(table, name);
+        } else if (type == boolean.class || type == Boolean.class) {
+            return new OfBoolean(table.getBooleanTopic(name).publish());
+        } else if (type == String.class) {
+            return new OfString(table.getStringTopic(name).publish());
+        } else if (type == double[].class) {
+            var publisher = table.getDoubleArrayTopic(name).publish();
+            return new OfArray<>(double[].class, publisher, publisher::set, Arrays::equals, double[]::clone);
+        } else if (type == boolean[].class) {
+            var publisher = table.getBooleanArrayTopic(name).publish();
+            return new OfArray<>(boolean[].class, publisher, publisher::set, Arrays::equals, boolean[]::clone);
+        } else if (type == String[].class) {
+            var publisher = table.getStringArrayTopic(name).publish();
+            return new OfArray<>(String[].class, publisher, publisher::set, Arrays::equals, String[]::clone);
+        } else if (type == long[].class) {
+            var publisher = table.getIntegerArrayTopic(name).publish();
+            return new OfArray<>(long[].class, publisher, publisher::set, Arrays::equals, long[]::clone);
+        } else if (type == int[].class) {
+            var publisher = table.getIntegerArrayTopic(name).publish();
+            return new OfArray<>(int[].class, publisher, value -> publisher.set(toLongs(value)),
+                    Arrays::equals, int[]::clone);
+        }
+        return new OfEntry(table.getEntry(name));
+    }
+
+    /** Creates the publisher for a value, with the type of the value */
+    public static CachedPublisher of(NetworkTable table, String name, Object value) {
+        return of(table, name, value == null ? Object.class : value.getClass());
+    }
+
+    public static OfDouble ofDouble(NetworkTable table, String name) {
+        return new OfDouble(table.getDoubleTopic(name).publish());
+    }
+
+    private static long[] toLongs(int[] values) {
+        long[] out = new long[values.length];
+        for (int i = 0; i < values.length; i++) {
+            out[i] = values[i];
+        }
+        return out;
+    }
+
+    /** Has an unboxed {@link #accept(double)} for callers with a primitive */
+    public static final class OfDouble extends CachedPublisher {
+        private final DoublePublisher publisher;
+        private double last = Double.NaN;
+        private boolean sent = false;
+
+        private OfDouble(DoublePublisher publisher) {
+            this.publisher = publisher;
+        }
+
+        public void accept(double value) {
+            if (sent && Double.compare(value, last) == 0) {
+                return;
+            }
+            if (due()) {
+                publisher.set(value);
+                last = value;
+                sent = true;
+            }
+        }
+
+        @Override
+        public void accept(Object value) {
+            if (value instanceof Number) {
+                accept(((Number) value).doubleValue());
+            }
+        }
+
+        @Override
+        public void close() {
+            publisher.close();
+        }
+    }
+
+    private static final class OfBoolean extends CachedPublisher {
+        private final BooleanPublisher publisher;
+        private boolean last = false;
+        private boolean sent = false;
+
+        private OfBoolean(BooleanPublisher publisher) {
+            this.publisher = publisher;
+        }
+
+        @Override
+        public void accept(Object value) {
+            if (!(value instanceof Boolean)) {
+                return;
+            }
+            boolean bool = (Boolean) value;
+            if ((sent && bool == last) || !due()) {
+                return;
+            }
+            publisher.set(bool);
+            last = bool;
+            sent = true;
+        }
+
+        @Override
+        public void close() {
+            publisher.close();
+        }
+    }
+
+    private static final class OfString extends CachedPublisher {
+        private final StringPublisher publisher;
+        private String last = null;
+
+        private OfString(StringPublisher publisher) {
+            this.publisher = publisher;
+        }
+
+        @Override
+        public void accept(Object value) {
+            if (!(value instanceof String) || value.equals(last) || !due()) {
+                return;
+            }
+            publisher.set((String) value);
+            last = (String) value;
+        }
+
+        @Override
+        public void close() {
+            publisher.close();
+        }
+    }
+
+    /** Keeps a copy of the last array sent, so only changed arrays get copied */
+    private static final class OfArray<T> extends CachedPublisher {
+        private final Class<T> type;
+        private final Publisher publisher;
+        private final Consumer<T> send;
+        private final BiPredicate<T, T> equals;
+        private final UnaryOperator<T> copy;
+        private T last = null;
+
+        private OfArray(Class<T> type, Publisher publisher, Consumer<T> send, BiPredicate<T, T> equals,
+                UnaryOperator<T> copy) {
+            this.type = type;
+            this.publisher = publisher;
+            this.send = send;
+            this.equals = equals;
+            this.copy = copy;
+        }
+
+        @Override
+        public void accept(Object value) {
+            if (!type.isInstance(value)) {
+                return;
+            }
+            T array = type.cast(value);
+            if ((last != null && equals.test(array, last)) || !due()) {
+                return;
+            }
+            send.accept(array);
+            last = copy.apply(array);
+        }
+
+        @Override
+        public void close() {
+            publisher.close();
+        }
+    }
+
+    /** For values without a typed publisher */
+    private static final class OfEntry extends CachedPublisher {
+        private final NetworkTableEntry entry;
+        private Object last = null;
+
+        private OfEntry(NetworkTableEntry entry) {
+            this.entry = entry;
+        }
+
+        @Override
+        public void accept(Object value) {
+            if (value == null || Objects.equals(value, last) || !due()) {
+                return;
+            }
+            entry.setValue(value);
+            last = value;
+        }
+
+        @Override
+        public void close() {
+            entry.unpublish();
+        }
+    }
+}
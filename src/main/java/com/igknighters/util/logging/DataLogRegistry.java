@@ -0,0 +1,758 @@
+package com.igknighters.util.logging;
+
+import java.lang.reflect.Array;
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.function.BiPredicate;
+import java.util.function.BooleanSupplier;
+import java.util.function.DoubleSupplier;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
+
+import com.igknighters.util.logging.DataLogger.AppendMode;
+
+import edu.wpi.first.util.datalog.BooleanArrayLogEntry;
+import edu.wpi.first.util.datalog.BooleanLogEntry;
+import edu.wpi.first.util.datalog.DataLogEntry;
+import edu.wpi.first.util.datalog.DoubleArrayLogEntry;
+import edu.wpi.first.util.datalog.DoubleLogEntry;
+import edu.wpi.first.util.datalog.FloatArrayLogEntry;
+import edu.wpi.first.util.datalog.FloatLogEntry;
+import edu.wpi.first.util.datalog.IntegerArrayLogEntry;
+import edu.wpi.first.util.datalog.IntegerLogEntry;
+import edu.wpi.first.util.datalog.RawLogEntry;
+import edu.wpi.first.util.datalog.StringArrayLogEntry;
+import edu.wpi.first.util.datalog.StringLogEntry;
+import edu.wpi.first.util.function.FloatSupplier;
+
+/**
+ * Storage for datalog entries that get appended every cycle.
+ * <p>
+ * Every entry type gets its own set of parallel arrays (entry + supplier) so
+ * sampling is one tight loop per type with no boxing, hashing or
+ * instanceof checks. The type is resolved once when the entry is added.
+ * <p>
+ * This is an {@link AsyncLogPipeline.Stage}, the robot thread only copies values into
+ * preallocated slot arrays and the appends happen on the log thread.
+ * Entries must be added from the robot thread.
+ * <p>
+ * Entries in {@link AppendMode#OnChange} compare against the last value written
+ * and skip the append if nothing changed, unless the heartbeat has elapsed.
+ */
+class DataLogRegistry implements AsyncLogPipeline.Stage {
+    private static final int INITIAL_CAPACITY = 8;
+    private static final int SLOTS = AsyncLogPipeline.SLOTS;
+
+    private static final byte MODE_DEFAULT = 0;
+    private static final byte MODE_EVERY_CYCLE = 1;
+    private static final byte MODE_ON_CHANGE = 2;
+
+    // shared by every registry, set through DataLogger
+    private static volatile boolean defaultOnChange = false;
+    private static volatile long heartbeatUs = 1_000_000L;
+
+    static void setDefaultAppendMode(AppendMode mode) {
+        defaultOnChange = mode == AppendMode.OnChange;
+    }
+
+    /** A heartbeat of 0 or less means unchanged values are never rewritten */
+    static void setHeartbeat(double seconds) {
+        heartbeatUs = (long) (seconds * 1_000_000.0);
+    }
+
+    private static byte modeByte(AppendMode mode) {
+        switch (mode) {
+            case EveryCycle:
+                return MODE_EVERY_CYCLE;
+            case OnChange:
+                return MODE_ON_CHANGE;
+            default:
+                return MODE_DEFAULT;
+        }
+    }
+
+    private final BooleanChannel booleans = new BooleanChannel();
+    private final DoubleChannel doubles = new DoubleChannel();
+    private final FloatChannel floats = new FloatChannel();
+    private final IntegerChannel integers = new IntegerChannel();
+    private final ObjectChannel<StringLogEntry, String> strings = new ObjectChannel<>(
+            StringLogEntry::append, Objects::equals, (value, reuse) -> value);
+    private final ObjectChannel<BooleanArrayLogEntry, boolean[]> booleanArrays = new ObjectChannel<>(
+            BooleanArrayLogEntry::append, Arrays::equals, arrayCopier(boolean[]::clone));
+    private final ObjectChannel<DoubleArrayLogEntry, double[]> doubleArrays = new ObjectChannel<>(
+            DoubleArrayLogEntry::append, Arrays::equals, arrayCopier(double[]::clone));
+    private final ObjectChannel<FloatArrayLogEntry, float[]> floatArrays = new ObjectChannel<>(
+            FloatArrayLogEntry::append, Arrays::equals, arrayCopier(float[]::clone));
+    private final ObjectChannel<IntegerArrayLogEntry, long[]> integerArrays = new ObjectChannel<>(
+            IntegerArrayLogEntry::append, Arrays::equals, arrayCopier(long[]::clone));
+    private final ObjectChannel<StringArrayLogEntry, String[]> stringArrays = new ObjectChannel<>(
+            StringArrayLogEntry::append, Arrays::equals, arrayCopier(String[]::clone));
+    private final ObjectChannel<RawLogEntry, byte[]> raws = new ObjectChannel<>(
+            RawLogEntry::append, Arrays::equals, arrayCopier(byte[]::clone));
+
+    public void addBoolean(BooleanLogEntry entry, BooleanSupplier supplier) {
+        addBoolean(entry, supplier, AppendMode.Default);
+    }
+
+    public void addBoolean(BooleanLogEntry entry, BooleanSupplier supplier, AppendMode mode) {
+        booleans.add(entry, supplier, modeByte(mode));
+    }
+
+    public void addDouble(DoubleLogEntry entry, DoubleSupplier supplier) {
+        addDouble(entry, supplier, AppendMode.Default, 0.0);
+    }
+
+    /**
+     * @param epsilon how far the value has to move to count as changed,
+     *                only used when the entry is appending on change
+     */
+    public void addDouble(DoubleLogEntry entry, DoubleSupplier supplier, AppendMode mode, double epsilon) {
+        doubles.add(entry, supplier, modeByte(mode), Math.abs(epsilon));
+    }
+
+    public void addFloat(FloatLogEntry entry, FloatSupplier supplier) {
+        addFloat(entry, supplier, AppendMode.Default);
+    }
+
+    public void addFloat(FloatLogEntry entry, FloatSupplier supplier, AppendMode mode) {
+        floats.add(entry, supplier, modeByte(mode));
+    }
+
+    public void addInteger(IntegerLogEntry entry, LongSupplier supplier) {
+        addInteger(entry, supplier, AppendMode.Default);
+    }
+
+    public void addInteger(IntegerLogEntry entry, LongSupplier supplier, AppendMode mode) {
+        integers.add(entry, supplier, modeByte(mode));
+    }
+
+    public void addString(StringLogEntry entry, Supplier<String> supplier) {
+        addString(entry, supplier, AppendMode.Default);
+    }
+
+    public void addString(StringLogEntry entry, Supplier<String> supplier, AppendMode mode) {
+        strings.add(entry, supplier, modeByte(mode));
+    }
+
+    public void addBooleanArray(BooleanArrayLogEntry entry, Supplier<boolean[]> supplier) {
+        addBooleanArray(entry, supplier, AppendMode.Default);
+    }
+
+    public void addBooleanArray(BooleanArrayLogEntry entry, Supplier<boolean[]> supplier, AppendMode mode) {
+        booleanArrays.add(entry, supplier, modeByte(mode));
+    }
+
+    public void addDoubleArray(DoubleArrayLogEntry entry, Supplier<double[]> supplier) {
+        addDoubleArray(entry, supplier, AppendMode.Default);
+    }
+
+    public void addDoubleArray(DoubleArrayLogEntry entry, Supplier<double[]> supplier, AppendMode mode) {
+        doubleArrays.add(entry, supplier, modeByte(mode));
+    }
+
+    public void addFloatArray(FloatArrayLogEntry entry, Supplier<float[]> supplier) {
+        addFloatArray(entry, supplier, AppendMode.Default);
+    }
+
+    public void addFloatArray(FloatArrayLogEntry entry, Supplier<float[]> supplier, AppendMode mode) {
+        floatArrays.add(entry, supplier, modeByte(mode));
+    }
+
+    public void addIntegerArray(IntegerArrayLogEntry entry, Supplier<long[]> supplier) {
+        addIntegerArray(entry, supplier, AppendMode.Default);
+    }
+
+    public void addIntegerArray(IntegerArrayLogEntry entry, Supplier<long[]> supplier, AppendMode mode) {
+        integerArrays.add(entry, supplier, modeByte(mode));
+    }
+
+    public void addStringArray(StringArrayLogEntry entry, Supplier<String[]> supplier) {
+        addStringArray(entry, supplier, AppendMode.Default);
+    }
+
+    public void addStringArray(StringArrayLogEntry entry, Supplier<String[]> supplier, AppendMode mode) {
+        stringArrays.add(entry, supplier, modeByte(mode));
+    }
+
+    public void addRaw(RawLogEntry entry, Supplier<byte[]> supplier) {
+        addRaw(entry, supplier, AppendMode.Default);
+    }
+
+    public void addRaw(RawLogEntry entry, Supplier<byte[]> supplier, AppendMode mode) {
+        raws.add(entry, supplier, modeByte(mode));
+    }
+
+    /**
+     * Adds an entry of unknown type, the type is resolved here once
+     * instead of every cycle.
+     *
+     * @throws IllegalArgumentException if the entry type is not supported
+     */
+    @SuppressWarnings("unchecked")
+    public void addCustom(DataLogEntry entry, Supplier<?> supplier) {
+        if (entry instanceof BooleanArrayLogEntry) {
+            addBooleanArray((BooleanArrayLogEntry) entry, (Supplier<boolean[]>) supplier);
+        } else if (entry instanceof BooleanLogEntry) {
+            addBoolean((BooleanLogEntry) entry, () -> (Boolean) supplier.get());
+        } else if (entry instanceof DoubleArrayLogEntry) {
+            addDoubleArray((DoubleArrayLogEntry) entry, (Supplier<double[]>) supplier);
+        } else if (entry instanceof DoubleLogEntry) {
+            addDouble((DoubleLogEntry) entry, () -> ((Number) supplier.get()).doubleValue());
+        } else if (entry instanceof FloatArrayLogEntry) {
+            addFloatArray((FloatArrayLogEntry) entry, (Supplier<float[]>) supplier);
+        } else if (entry instanceof FloatLogEntry) {
+            addFloat((FloatLogEntry) entry, () -> ((Number) supplier.get()).floatValue());
+        } else if (entry instanceof IntegerArrayLogEntry) {
+            addIntegerArray((IntegerArrayLogEntry) entry, (Supplier<long[]>) supplier);
+        } else if (entry instanceof IntegerLogEntry) {
+            addInteger((IntegerLogEntry) entry, () -> ((Number) supplier.get()).longValue());
+        } else if (entry instanceof RawLogEntry) {
+            addRaw((RawLogEntry) entry, (Supplier<byte[]>) supplier);
+        } else if (entry instanceof StringArrayLogEntry) {
+            addStringArray((StringArrayLogEntry) entry, (Supplier<String[]>) supplier);
+        } else if (entry instanceof StringLogEntry) {
+            addString((StringLogEntry) entry, (Supplier<String>) supplier);
+        } else {
+            throw new IllegalArgumentException("Unsupported datalog entry type: " + entry.getClass().getName());
+        }
+    }
+
+    @Override
+    public void sample(int slot) {
+        booleans.sample(slot);
+        doubles.sample(slot);
+        floats.sample(slot);
+        integers.sample(slot);
+        strings.sample(slot);
+        booleanArrays.sample(slot);
+        doubleArrays.sample(slot);
+        floatArrays.sample(slot);
+        integerArrays.sample(slot);
+        stringArrays.sample(slot);
+        raws.sample(slot);
+    }
+
+    @Override
+    public void flush(int slot, long timestampUs) {
+        boolean onChange = defaultOnChange;
+        long heartbeat = heartbeatUs;
+        booleans.flush(slot, timestampUs, onChange, heartbeat);
+        doubles.flush(slot, timestampUs, onChange, heartbeat);
+        floats.flush(slot, timestampUs, onChange, heartbeat);
+        integers.flush(slot, timestampUs, onChange, heartbeat);
+        strings.flush(slot, timestampUs, onChange, heartbeat);
+        booleanArrays.flush(slot, timestampUs, onChange, heartbeat);
+        doubleArrays.flush(slot, timestampUs, onChange, heartbeat);
+        floatArrays.flush(slot, timestampUs, onChange, heartbeat);
+        integerArrays.flush(slot, timestampUs, onChange, heartbeat);
+        stringArrays.flush(slot, timestampUs, onChange, heartbeat);
+        raws.flush(slot, timestampUs, onChange, heartbeat);
+    }
+
+    /** Robot thread, slots that are already sampled still get flushed */
+    public void clear() {
+        booleans.clear();
+        doubles.clear();
+        floats.clear();
+        integers.clear();
+        strings.clear();
+        booleanArrays.clear();
+        doubleArrays.clear();
+        floatArrays.clear();
+        integerArrays.clear();
+        stringArrays.clear();
+        raws.clear();
+    }
+
+    public int size() {
+        return booleans.count + doubles.count + floats.count + integers.count
+                + strings.count + booleanArrays.count + doubleArrays.count
+                + floatArrays.count + integerArrays.count + stringArrays.count + raws.count;
+    }
+
+    /**
+     * The bookkeeping every channel shares.
+     * <p>
+     * The registration arrays (entries, suppliers, modes) belong to the robot thread.
+     * They are only ever replaced or appended to past count, so a slot can keep
+     * a reference to the arrays it was sampled with. The dedup state
+     * (last value, last append) belongs to the log thread.
+     */
+    private abstract static class Channel {
+        // robot thread
+        protected int count = 0;
+        protected byte[] modes = new byte[INITIAL_CAPACITY];
+        private int generation = 0;
+
+        // written when sampled, read when flushed
+        protected final int[] slotCounts = new int[SLOTS];
+        protected final byte[][] slotModes = new byte[SLOTS][];
+        private final int[] slotGenerations = new int[SLOTS];
+
+        // log thread
+        private int flushedGeneration = 0;
+        protected boolean[] appended = new boolean[INITIAL_CAPACITY];
+        protected long[] lastAppendUs = new long[INITIAL_CAPACITY];
+
+        /** @return the index for a new entry */
+        protected int reserve(byte mode) {
+            if (count == modes.length) {
+                grow(count * 2);
+            }
+            modes[count] = mode;
+            return count++;
+        }
+
+        /** Robot thread, grows the registration arrays */
+        protected void grow(int capacity) {
+            modes = Arrays.copyOf(modes, capacity);
+        }
+
+        /** Robot thread, records what the slot was sampled with */
+        protected final void markSampled(int slot) {
+            slotCounts[slot] = count;
+            slotModes[slot] = modes;
+            slotGenerations[slot] = generation;
+        }
+
+        /**
+         * Log thread, makes sure the dedup state fits the slot
+         *
+         * @return how many entries the slot holds
+         */
+        protected final int beginFlush(int slot) {
+            int n = slotCounts[slot];
+            if (slotGenerations[slot] != flushedGeneration) {
+                // the registry was cleared, indexes now belong to new entries
+                flushedGeneration = slotGenerations[slot];
+                Arrays.fill(appended, false);
+            }
+            if (appended.length < n) {
+                int capacity = Math.max(n, appended.length * 2);
+                appended = Arrays.copyOf(appended, capacity);
+                lastAppendUs = Arrays.copyOf(lastAppendUs, capacity);
+                growFlushState(capacity);
+            }
+            return n;
+        }
+
+        /** Log thread, grows the last value storage */
+        protected abstract void growFlushState(int capacity);
+
+        protected static boolean isOnChange(byte[] modes, int i, boolean defaultOnChange) {
+            byte mode = modes[i];
+            return mode == MODE_ON_CHANGE || (mode == MODE_DEFAULT && defaultOnChange);
+        }
+
+        /**
+         * @return true if the entry only appends on change, has appended before
+         *         and the heartbeat hasn't elapsed
+         */
+        protected final boolean canSkip(byte[] modes, int i, long timestampUs, boolean defaultOnChange,
+                long heartbeatUs) {
+            return isOnChange(modes, i, defaultOnChange) && appended[i]
+                    && (heartbeatUs <= 0 || timestampUs - lastAppendUs[i] < heartbeatUs);
+        }
+
+        protected final void markAppended(int i, long timestampUs) {
+            appended[i] = true;
+            lastAppendUs[i] = timestampUs;
+        }
+
+        /** Robot thread, registration arrays are replaced so pending slots keep theirs */
+        void clear() {
+            count = 0;
+            generation++;
+            modes = new byte[INITIAL_CAPACITY];
+        }
+    }
+
+    private static final class BooleanChannel extends Channel {
+        private BooleanLogEntry[] entries = new BooleanLogEntry[INITIAL_CAPACITY];
+        private BooleanSupplier[] suppliers = new BooleanSupplier[INITIAL_CAPACITY];
+
+        private final BooleanLogEntry[][] slotEntries = new BooleanLogEntry[SLOTS][];
+        private final boolean[][] slotValues = new boolean[SLOTS][INITIAL_CAPACITY];
+
+        private boolean[] last = new boolean[INITIAL_CAPACITY];
+
+        void add(BooleanLogEntry entry, BooleanSupplier supplier, byte mode) {
+            int i = reserve(mode);
+            entries[i] = entry;
+            suppliers[i] = supplier;
+        }
+
+        @Override
+        protected void grow(int capacity) {
+            super.grow(capacity);
+            entries = Arrays.copyOf(entries, capacity);
+            suppliers = Arrays.copyOf(suppliers, capacity);
+        }
+
+        @Override
+        protected void growFlushState(int capacity) {
+            last = Arrays.copyOf(last, capacity);
+        }
+
+        void sample(int slot) {
+            boolean[] values = slotValues[slot];
+            if (values.length < count) {
+                values = new boolean[modes.length];
+                slotValues[slot] = values;
+            }
+            for (int i = 0; i < count; i++) {
+                values[i] = suppliers[i].getAsBoolean();
+            }
+            slotEntries[slot] = entries;
+            markSampled(slot);
+        }
+
+        void flush(int slot, long timestampUs, boolean defaultOnChange, long heartbeatUs) {
+            int n = beginFlush(slot);
+            BooleanLogEntry[] slotEntry = slotEntries[slot];
+            boolean[] values = slotValues[slot];
+            byte[] modes = slotModes[slot];
+            for (int i = 0; i < n; i++) {
+                boolean value = values[i];
+                if (value == last[i] && canSkip(modes, i, timestampUs, defaultOnChange, heartbeatUs)) {
+                    continue;
+                }
+                slotEntry[i].append(value, timestampUs);
+                last[i] = value;
+                markAppended(i, timestampUs);
+            }
+        }
+
+        @Override
+        void clear() {
+            super.clear();
+            entries = new BooleanLogEntry[INITIAL_CAPACITY];
+            suppliers = new BooleanSupplier[INITIAL_CAPACITY];
+        }
+    }
+
+    private static final class DoubleChannel extends Channel {
+        private DoubleLogEntry[] entries = new DoubleLogEntry[INITIAL_CAPACITY];
+        private DoubleSupplier[] suppliers = new DoubleSupplier[INITIAL_CAPACITY];
+        private double[] epsilons = new double[INITIAL_CAPACITY];
+
+        private final DoubleLogEntry[][] slotEntries = new DoubleLogEntry[SLOTS][];
+        private final double[][] slotEpsilons = new double[SLOTS][];
+        private final double[][] slotValues = new double[SLOTS][INITIAL_CAPACITY];
+
+        private double[] last = new double[INITIAL_CAPACITY];
+
+        void add(DoubleLogEntry entry, DoubleSupplier supplier, byte mode, double epsilon) {
+            int i = reserve(mode);
+            entries[i] = entry;
+            suppliers[i] = supplier;
+            epsilons[i] = epsilon;
+        }
+
+        @Override
+        protected void grow(int capacity) {
+            super.grow(capacity);
+            entries = Arrays.copyOf(entries, capacity);
+            suppliers = Arrays.copyOf(suppliers, capacity);
+            epsilons = Arrays.copyOf(epsilons, capacity);
+        }
+
+        @Override
+        protected void growFlushState(int capacity) {
+            last = Arrays.copyOf(last, capacity);
+        }
+
+        void sample(int slot) {
+            double[] values = slotValues[slot];
+            if (values.length < count) {
+                values = new double[modes.length];
+                slotValues[slot] = values;
+            }
+            for (int i = 0; i < count; i++) {
+                values[i] = suppliers[i].getAsDouble();
+            }
+            slotEntries[slot] = entries;
+            slotEpsilons[slot] = epsilons;
+            markSampled(slot);
+        }
+
+        void flush(int slot, long timestampUs, boolean defaultOnChange, long heartbeatUs) {
+            int n = beginFlush(slot);
+            DoubleLogEntry[] slotEntry = slotEntries[slot];
+            double[] values = slotValues[slot];
+            double[] slotEpsilon = slotEpsilons[slot];
+            byte[] modes = slotModes[slot];
+            for (int i = 0; i < n; i++) {
+                double value = values[i];
+                if (withinEpsilon(value, last[i], slotEpsilon[i])
+                        && canSkip(modes, i, timestampUs, defaultOnChange, heartbeatUs)) {
+                    continue;
+                }
+                slotEntry[i].append(value, timestampUs);
+                last[i] = value;
+                markAppended(i, timestampUs);
+            }
+        }
+
+        private static boolean withinEpsilon(double value, double last, double epsilon) {
+            // NaN never compares equal so check it explicitly
+            return Math.abs(value - last) <= epsilon || (Double.isNaN(value) && Double.isNaN(last));
+        }
+
+        @Override
+        void clear() {
+            super.clear();
+            entries = new DoubleLogEntry[INITIAL_CAPACITY];
+            suppliers = new DoubleSupplier[INITIAL_CAPACITY];
+            epsilons = new double[INITIAL_CAPACITY];
+        }
+    }
+
+    private static final class FloatChannel extends Channel {
+        private FloatLogEntry[] entries = new FloatLogEntry[INITIAL_CAPACITY];
+        private FloatSupplier[] suppliers = new FloatSupplier[INITIAL_CAPACITY];
+
+        private final FloatLogEntry[][] slotEntries = new FloatLogEntry[SLOTS][];
+        private final float[][] slotValues = new float[SLOTS][INITIAL_CAPACITY];
+
+        private float[] last = new float[INITIAL_CAPACITY];
+
+        void add(FloatLogEntry entry, FloatSupplier supplier, byte mode) {
+            int i = reserve(mode);
+            entries[i] = entry;
+            suppliers[i] = supplier;
+        }
+
+        @Override
+        protected void grow(int capacity) {
+            super.grow(capacity);
+            entries = Arrays.copyOf(entries, capacity);
+            suppliers = Arrays.copyOf(suppliers, capacity);
+        }
+
+        @Override
+        protected void growFlushState(int capacity) {
+            last = Arrays.copyOf(last, capacity);
+        }
+
+        void sample(int slot) {
+            float[] values = slotValues[slot];
+            if (values.length < count) {
+                values = new float[modes.length];
+                slotValues[slot] = values;
+            }
+            for (int i = 0; i < count; i++) {
+                values[i] = suppliers[i].getAsFloat();
+            }
+            slotEntries[slot] = entries;
+            markSampled(slot);
+        }
+
+        void flush(int slot, long timestampUs, boolean defaultOnChange, long heartbeatUs) {
+            int n = beginFlush(slot);
+            FloatLogEntry[] slotEntry = slotEntries[slot];
+            float[] values = slotValues[slot];
+            byte[] modes = slotModes[slot];
+            for (int i = 0; i < n; i++) {
+                float value = values[i];
+                if (Float.compare(value, last[i]) == 0
+                        && canSkip(modes, i, timestampUs, defaultOnChange, heartbeatUs)) {
+                    continue;
+                }
+                slotEntry[i].append(value, timestampUs);
+                last[i] = value;
+                markAppended(i, timestampUs);
+            }
+        }
+
+        @Override
+        void clear() {
+            super.clear();
+            entries = new FloatLogEntry[INITIAL_CAPACITY];
+            suppliers = new FloatSupplier[INITIAL_CAPACITY];
+        }
+    }
+
+    private static final class IntegerChannel extends Channel {
+        private IntegerLogEntry[] entries = new IntegerLogEntry[INITIAL_CAPACITY];
+        private LongSupplier[] suppliers = new LongSupplier[INITIAL_CAPACITY];
+
+        private final IntegerLogEntry[][] slotEntries = new IntegerLogEntry[SLOTS][];
+        private final long[][] slotValues = new long[SLOTS][INITIAL_CAPACITY];
+
+        private long[] last = new long[INITIAL_CAPACITY];
+
+        void add(IntegerLogEntry entry, LongSupplier supplier, byte mode) {
+            int i = reserve(mode);
+            entries[i] = entry;
+            suppliers[i] = supplier;
+        }
+
+        @Override
+        protected void grow(int capacity) {
+            super.grow(capacity);
+            entries = Arrays.copyOf(entries, capacity);
+            suppliers = Arrays.copyOf(suppliers, capacity);
+        }
+
+        @Override
+        protected void growFlushState(int capacity) {
+            last = Arrays.copyOf(last, capacity);
+        }
+
+        void sample(int slot) {
+            long[] values = slotValues[slot];
+            if (values.length < count) {
+                values = new long[modes.length];
+                slotValues[slot] = values;
+            }
+            for (int i = 0; i < count; i++) {
+                values[i] = suppliers[i].getAsLong();
+            }
+            slotEntries[slot] = entries;
+            markSampled(slot);
+        }
+
+        void flush(int slot, long timestampUs, boolean defaultOnChange, long heartbeatUs) {
+            int n = beginFlush(slot);
+            IntegerLogEntry[] slotEntry = slotEntries[slot];
+            long[] values = slotValues[slot];
+            byte[] modes = slotModes[slot];
+            for (int i = 0; i < n; i++) {
+                long value = values[i];
+                if (value == last[i] && canSkip(modes, i, timestampUs, defaultOnChange, heartbeatUs)) {
+                    continue;
+                }
+                slotEntry[i].append(value, timestampUs);
+                last[i] = value;
+                markAppended(i, timestampUs);
+            }
+        }
+
+        @Override
+        void clear() {
+            super.clear();
+            entries = new IntegerLogEntry[INITIAL_CAPACITY];
+            suppliers = new LongSupplier[INITIAL_CAPACITY];
+        }
+    }
+
+    /** How an object valued entry gets appended, ex: StringLogEntry::append */
+    @FunctionalInterface
+    private interface Appender<E, V> {
+        void append(E entry, V value, long timestampUs);
+    }
+
+    /** Copies a value into reusable storage, returns whatever now holds the copy */
+    @FunctionalInterface
+    private interface Copier<V> {
+        V copy(V value, V reuse);
+    }
+
+    /** Copies into the reused array when the length matches, clones otherwise */
+    private static <V> Copier<V> arrayCopier(UnaryOperator<V> cloner) {
+        return (value, reuse) -> {
+            if (value == null) {
+                return null;
+            }
+            int length = Array.getLength(value);
+            if (reuse == null || Array.getLength(reuse) != length) {
+                return cloner.apply(value);
+            }
+            System.arraycopy(value, 0, reuse, 0, length);
+            return reuse;
+        };
+    }
+
+    /**
+     * Reference types (strings and arrays) don't box so they can share one implementation.
+     * <p>
+     * Suppliers are free to return the same array every cycle, arrays are copied into
+     * storage owned by the slot when sampled and into the last value when they change.
+     * Both copies reuse their array as long as the length stays the same.
+     */
+    private static final class ObjectChannel<E extends DataLogEntry, V> extends Channel {
+        private final Appender<E, V> appender;
+        private final BiPredicate<V, V> equality;
+        private final Copier<V> copier;
+
+        private DataLogEntry[] entries = new DataLogEntry[INITIAL_CAPACITY];
+        private Object[] suppliers = new Object[INITIAL_CAPACITY];
+
+        private final DataLogEntry[][] slotEntries = new DataLogEntry[SLOTS][];
+        private final Object[][] slotValues = new Object[SLOTS][INITIAL_CAPACITY];
+
+        private Object[] last = new Object[INITIAL_CAPACITY];
+
+        ObjectChannel(Appender<E, V> appender, BiPredicate<V, V> equality, Copier<V> copier) {
+            this.appender = appender;
+            this.equality = equality;
+            this.copier = copier;
+        }
+
+        void add(E entry, Supplier<V> supplier, byte mode) {
+            int i = reserve(mode);
+            entries[i] = entry;
+            suppliers[i] = supplier;
+        }
+
+        @Override
+        protected void grow(int capacity) {
+            super.grow(capacity);
+            entries = Arrays.copyOf(entries, capacity);
+            suppliers = Arrays.copyOf(suppliers, capacity);
+        }
+
+        @Override
+        protected void growFlushState(int capacity) {
+            last = Arrays.copyOf(last, capacity);
+        }
+
+        @SuppressWarnings("unchecked")
+        void sample(int slot) {
+            Object[] values = slotValues[slot];
+            if (values.length < count) {
+                values = Arrays.copyOf(values, modes.length);
+                slotValues[slot] = values;
+            }
+            for (int i = 0; i < count; i++) {
+                values[i] = copier.copy(((Supplier<V>) suppliers[i]).get(), (V) values[i]);
+            }
+            slotEntries[slot] = entries;
+            markSampled(slot);
+        }
+
+        @SuppressWarnings("unchecked")
+        void flush(int slot, long timestampUs, boolean defaultOnChange, long heartbeatUs) {
+            int n = beginFlush(slot);
+            DataLogEntry[] slotEntry = slotEntries[slot];
+            Object[] values = slotValues[slot];
+            byte[] modes = slotModes[slot];
+            for (int i = 0; i < n; i++) {
+                V value = (V) values[i];
+                if (!isOnChange(modes, i, defaultOnChange)) {
+                    appender.append((E) slotEntry[i], value, timestampUs);
+                    markAppended(i, timestampUs);
+                    continue;
+                }
+                boolean changed = !appended[i] || !equality.test(value, (V) last[i]);
+                if (!changed && canSkip(modes, i, timestampUs, defaultOnChange, heartbeatUs)) {
+                    continue;
+                }
+                appender.append((E) slotEntry[i], value, timestampUs);
+                if (changed) {
+                    last[i] = copier.copy(value, (V) last[i]);
+                }
+                markAppended(i, timestampUs);
+            }
+        }
+
+        @Override
+        void clear() {
+            super.clear();
+            entries = new DataLogEntry[INITIAL_CAPACITY];
+            suppliers = new Object[INITIAL_CAPACITY];
+        }
+    }
+}
@@ -1,9 +1,7 @@
 package com.igknighters.util.logging;
 
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
 import java.util.function.BooleanSupplier;
 import java.util.function.Consumer;
 import java.util.function.DoubleConsumer;
@@ -15,7 +13,6 @@ import java.util.function.Supplier;
 import edu.wpi.first.util.datalog.BooleanArrayLogEntry;
 import edu.wpi.first.util.datalog.BooleanLogEntry;
 import edu.wpi.first.util.datalog.DataLog;
-import edu.wpi.first.util.datalog.DataLogEntry;
 import edu.wpi.first.util.datalog.DoubleArrayLogEntry;
 import edu.wpi.first.util.datalog.DoubleLogEntry;
 import edu.wpi.first.util.datalog.FloatArrayLogEntry;
@@ -31,10 +28,10 @@ import edu.wpi.first.util.function.FloatSupplier;
 import edu.wpi.first.util.sendable.SendableBuilder;
 import edu.wpi.first.wpilibj.DataLogManager;
 
-public class DataLogSendableBuilder implements SendableBuilder {
+public class DataLogSendableBuilder implements SendableBuilder, AsyncLogPipeline.Stage {
     private static final DataLog log = DataLogManager.getLog();
 
-    private final Map<DataLogEntry, Supplier<?>> dataLogMap = new HashMap<>();
+    private final DataLogRegistry registry = new DataLogRegistry();
     private final List<AutoCloseable> m_closeables = new ArrayList<>();
     private String prefix;
 
@@ -62,7 +59,7 @@ public class DataLogSendableBuilder implements SendableBuilder {
     }
     @Override
     public void clearProperties() {
-        dataLogMap.clear();
+        registry.clear();
     }
     @Override
     public void close() {
@@ -83,118 +80,91 @@ public class DataLogSendableBuilder implements SendableBuilder {
     @Override
     public void addBooleanProperty(String key, BooleanSupplier getter, BooleanConsumer setter) {
         if (getter != null) {
-            dataLogMap.put(new BooleanLogEntry(log, prefix+key), () -> getter.getAsBoolean());
+            registry.addBoolean(new BooleanLogEntry(log, prefix+key), getter);
         }
     }
 
     @Override
     public void addDoubleProperty(String key, DoubleSupplier getter, DoubleConsumer setter) {
         if (getter != null) {
-            dataLogMap.put(new DoubleLogEntry(log, prefix+key), () -> getter.getAsDouble());
+            registry.addDouble(new DoubleLogEntry(log, prefix+key), getter);
         }
     }
 
     @Override
     public void addStringProperty(String key, Supplier<String> getter, Consumer<String> setter) {
         if (getter != null) {
-            dataLogMap.put(new StringLogEntry(log, prefix+key), getter);
+            registry.addString(new StringLogEntry(log, prefix+key), getter);
         }
     }
 
     @Override
     public void addRawProperty(String key, String typeString, Supplier<byte[]> getter, Consumer<byte[]> setter) {
         if (getter != null) {
-            dataLogMap.put(new RawLogEntry(log, prefix+key+"("+typeString+")"), getter);
+            registry.addRaw(new RawLogEntry(log, prefix+key+"("+typeString+")"), getter);
         }
     }
 
     @Override
     public void addFloatProperty(String key, FloatSupplier getter, FloatConsumer setter) {
         if (getter != null) {
-            dataLogMap.put(new FloatLogEntry(log, prefix+key), () -> getter.getAsFloat());
+            registry.addFloat(new FloatLogEntry(log, prefix+key), getter);
         }
     }
 
     @Override
     public void addIntegerProperty(String key, LongSupplier getter, LongConsumer setter) {
         if (getter != null) {
-            dataLogMap.put(new IntegerLogEntry(log, prefix+key), (Supplier<?>) getter);
+            registry.addInteger(new IntegerLogEntry(log, prefix+key), getter);
         }
     }
 
     @Override
     public void addBooleanArrayProperty(String key, Supplier<boolean[]> getter, Consumer<boolean[]> setter) {
         if (getter != null) {
-            dataLogMap.put(new BooleanArrayLogEntry(log, prefix+key), getter);
+            registry.addBooleanArray(new BooleanArrayLogEntry(log, prefix+key), getter);
         }
     }
 
     @Override
     public void addDoubleArrayProperty(String key, Supplier<double[]> getter, Consumer<double[]> setter) {
         if (getter != null) {
-            dataLogMap.put(new DoubleArrayLogEntry(log, prefix+key), getter);
+            registry.addDoubleArray(new DoubleArrayLogEntry(log, prefix+key), getter);
         }
     }
 
     @Override
     public void addStringArrayProperty(String key, Supplier<String[]> getter, Consumer<String[]> setter) {
         if (getter != null) {
-            dataLogMap.put(new StringArrayLogEntry(log, prefix+key), getter);
+            registry.addStringArray(new StringArrayLogEntry(log, prefix+key), getter);
         }
     }
 
     @Override
     public void addFloatArrayProperty(String key, Supplier<float[]> getter, Consumer<float[]> setter) {
         if (getter != null) {
-            dataLogMap.put(new FloatArrayLogEntry(log, prefix+key), getter);
+            registry.addFloatArray(new FloatArrayLogEntry(log, prefix+key), getter);
         }
     }
 
     @Override
     public void addIntegerArrayProperty(String key, Supplier<long[]> getter, Consumer<long[]> setter) {
         if (getter != null) {
-            dataLogMap.put(new IntegerArrayLogEntry(log, prefix+key), getter);
+            registry.addIntegerArray(new IntegerArrayLogEntry(log, prefix+key), getter);
         }
     }
 
+    /** Values are sampled through the log pipeline instead, see {@link #sample(int)} */
     @Override
-    public void update() {
-        for (Map.Entry<DataLogEntry, Supplier<?>> entry : dataLogMap.entrySet()) {
-            var key = entry.getKey();
-            var val = entry.getValue().get();
-            if (key instanceof BooleanArrayLogEntry) {
-                ((BooleanArrayLogEntry) key).append((boolean[]) val);
+    public void update() {}
 
-            } else if (key instanceof BooleanLogEntry) {
-                ((BooleanLogEntry) key).append((boolean) val);
-
-            } else if (key instanceof DoubleArrayLogEntry) {
-                ((DoubleArrayLogEntry) key).append((double[]) val);
-
-            } else if (key instanceof DoubleLogEntry) {
-                ((DoubleLogEntry) key).append((double) val);
-
-            } else if (key instanceof FloatArrayLogEntry) {
-                ((FloatArrayLogEntry) key).append((float[]) val);
-
-            } else if (key instanceof FloatLogEntry) {
-                ((FloatLogEntry) key).append((float) val);
-
-            } else if (key instanceof IntegerArrayLogEntry) {
-                ((IntegerArrayLogEntry) key).append((long[]) val);
-
-            } else if (key instanceof IntegerLogEntry) {
-                ((IntegerLogEntry) key).append((long) val);
-
-            } else if (key instanceof RawLogEntry) {
-                ((RawLogEntry) key).append((byte[]) val);
-
-            } else if (key instanceof StringArrayLogEntry) {
-                ((StringArrayLogEntry) key).append((String[]) val);
+    @Override
+    public void sample(int slot) {
+        registry.sample(slot);
+    }
 
-            } else if (key instanceof StringLogEntry) {
-                ((StringLogEntry) key).append((String) val);
-            }
-        }
+    @Override
+    public void flush(int slot, long timestampUs) {
+        registry.flush(slot, timestampUs);
     }
 }
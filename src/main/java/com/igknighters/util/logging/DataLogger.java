@@ -1,22 +1,56 @@
 package com.igknighters.util.logging;
 
 import edu.wpi.first.util.datalog.*;
+import edu.wpi.first.util.function.FloatSupplier;
 import edu.wpi.first.util.sendable.Sendable;
 import edu.wpi.first.wpilibj.DataLogManager;
 
-import java.util.Collection;
-import java.util.HashMap;
-import java.util.LinkedHashSet;
-import java.util.Map;
+import java.util.function.BooleanSupplier;
+import java.util.function.DoubleSupplier;
+import java.util.function.LongSupplier;
 import java.util.function.Supplier;
 
-import com.igknighters.util.UtilPeriodic;
-
+/**
+ * Entries added here are sampled on the robot thread and appended
+ * on the log thread, see {@link AsyncLogPipeline}
+ */
 public class DataLogger {
-    private static final Map<DataLogEntry, Supplier<?>> dataLogMap = new HashMap<>();
-    private static final Collection<DataLogSendableBuilder> sendables = new LinkedHashSet<>();
+    private static final DataLogRegistry registry = new DataLogRegistry();
     private static final DataLog log = DataLogManager.getLog();
 
+    /** How a periodic entry decides when to append */
+    public enum AppendMode {
+        /** Follows whatever {@link DataLogger#setDefaultAppendMode} is set to */
+        Default,
+        /** Appends every cycle */
+        EveryCycle,
+        /**
+         * Only appends when the value changed since the last append,
+         * unchanged values are still rewritten every heartbeat
+         */
+        OnChange
+    }
+
+    /**
+     * Sets the append mode used by entries added with {@link AppendMode#Default},
+     * this includes entries that were already added.
+     * <p>
+     * Starts as {@link AppendMode#EveryCycle}
+     */
+    public static void setDefaultAppendMode(AppendMode mode) {
+        DataLogRegistry.setDefaultAppendMode(mode);
+    }
+
+    /**
+     * How often unchanged values of {@link AppendMode#OnChange} entries are rewritten anyway,
+     * 0 or less disables the heartbeat
+     * <p>
+     * Starts as 1 second
+     */
+    public static void setHeartbeat(double seconds) {
+        DataLogRegistry.setHeartbeat(seconds);
+    }
+
     public static void oneShotBooleanArray(String entryName, boolean[] value) {
         new BooleanArrayLogEntry(log, entryName).append(value);
     }
@@ -62,51 +96,107 @@ public class DataLogger {
     }
 
     public static void addBooleanArray(String entryName, Supplier<boolean[]> valueSupplier) {
-        dataLogMap.put(new BooleanArrayLogEntry(log, entryName), valueSupplier);
+        registry.addBooleanArray(new BooleanArrayLogEntry(log, entryName), valueSupplier);
+    }
+
+    public static void addBooleanArray(String entryName, Supplier<boolean[]> valueSupplier, AppendMode mode) {
+        registry.addBooleanArray(new BooleanArrayLogEntry(log, entryName), valueSupplier, mode);
     }
 
-    public static void addBoolean(String entryName, Supplier<Boolean> valueSupplier) {
-        dataLogMap.put(new BooleanLogEntry(log, entryName), valueSupplier);
+    public static void addBoolean(String entryName, BooleanSupplier valueSupplier) {
+        registry.addBoolean(new BooleanLogEntry(log, entryName), valueSupplier);
+    }
+
+    public static void addBoolean(String entryName, BooleanSupplier valueSupplier, AppendMode mode) {
+        registry.addBoolean(new BooleanLogEntry(log, entryName), valueSupplier, mode);
     }
 
     public static void addDoubleArray(String entryName, Supplier<double[]> valueSupplier) {
-        dataLogMap.put(new DoubleArrayLogEntry(log, entryName), valueSupplier);
+        registry.addDoubleArray(new DoubleArrayLogEntry(log, entryName), valueSupplier);
+    }
+
+    public static void addDoubleArray(String entryName, Supplier<double[]> valueSupplier, AppendMode mode) {
+        registry.addDoubleArray(new DoubleArrayLogEntry(log, entryName), valueSupplier, mode);
+    }
+
+    public static void addDouble(String entryName, DoubleSupplier valueSupplier) {
+        registry.addDouble(new DoubleLogEntry(log, entryName), valueSupplier);
+    }
+
+    public static void addDouble(String entryName, DoubleSupplier valueSupplier, AppendMode mode) {
+        registry.addDouble(new DoubleLogEntry(log, entryName), valueSupplier, mode, 0.0);
     }
 
-    public static void addDouble(String entryName, Supplier<Double> valueSupplier) {
-        dataLogMap.put(new DoubleLogEntry(log, entryName), valueSupplier);
+    /**
+     * Adds the entry in {@link AppendMode#OnChange},
+     * changes smaller than epsilon are not counted as a change
+     */
+    public static void addDouble(String entryName, DoubleSupplier valueSupplier, double epsilon) {
+        registry.addDouble(new DoubleLogEntry(log, entryName), valueSupplier, AppendMode.OnChange, epsilon);
     }
 
     public static void addFloatArray(String entryName, Supplier<float[]> valueSupplier) {
-        dataLogMap.put(new FloatArrayLogEntry(log, entryName), valueSupplier);
+        registry.addFloatArray(new FloatArrayLogEntry(log, entryName), valueSupplier);
+    }
+
+    public static void addFloatArray(String entryName, Supplier<float[]> valueSupplier, AppendMode mode) {
+        registry.addFloatArray(new FloatArrayLogEntry(log, entryName), valueSupplier, mode);
     }
 
-    public static void addFloat(String entryName, Supplier<Float> valueSupplier) {
-        dataLogMap.put(new FloatLogEntry(log, entryName), valueSupplier);
+    public static void addFloat(String entryName, FloatSupplier valueSupplier) {
+        registry.addFloat(new FloatLogEntry(log, entryName), valueSupplier);
+    }
+
+    public static void addFloat(String entryName, FloatSupplier valueSupplier, AppendMode mode) {
+        registry.addFloat(new FloatLogEntry(log, entryName), valueSupplier, mode);
     }
 
     public static void addIntegerArray(String entryName, Supplier<long[]> valueSupplier) {
-        dataLogMap.put(new IntegerArrayLogEntry(log, entryName), valueSupplier);
+        registry.addIntegerArray(new IntegerArrayLogEntry(log, entryName), valueSupplier);
     }
 
-    public static void addInteger(String entryName, Supplier<Long> valueSupplier) {
-        dataLogMap.put(new IntegerLogEntry(log, entryName), valueSupplier);
+    public static void addIntegerArray(String entryName, Supplier<long[]> valueSupplier, AppendMode mode) {
+        registry.addIntegerArray(new IntegerArrayLogEntry(log, entryName), valueSupplier, mode);
+    }
+
+    public static void addInteger(String entryName, LongSupplier valueSupplier) {
+        registry.addInteger(new IntegerLogEntry(log, entryName), valueSupplier);
+    }
+
+    public static void addInteger(String entryName, LongSupplier valueSupplier, AppendMode mode) {
+        registry.addInteger(new IntegerLogEntry(log, entryName), valueSupplier, mode);
     }
 
     public static void addRaw(String entryName, Supplier<byte[]> valueSupplier) {
-        dataLogMap.put(new RawLogEntry(log, entryName), valueSupplier);
+        registry.addRaw(new RawLogEntry(log, entryName), valueSupplier);
+    }
+
+    public static void addRaw(String entryName, Supplier<byte[]> valueSupplier, AppendMode mode) {
+        registry.addRaw(new RawLogEntry(log, entryName), valueSupplier, mode);
     }
 
     public static void addStringArray(String entryName, Supplier<String[]> valueSupplier) {
-        dataLogMap.put(new StringArrayLogEntry(log, entryName), valueSupplier);
+        registry.addStringArray(new StringArrayLogEntry(log, entryName), valueSupplier);
+    }
+
+    public static void addStringArray(String entryName, Supplier<String[]> valueSupplier, AppendMode mode) {
+        registry.addStringArray(new StringArrayLogEntry(log, entryName), valueSupplier, mode);
     }
 
     public static void addString(String entryName, Supplier<String> valueSupplier) {
-        dataLogMap.put(new StringLogEntry(log, entryName), valueSupplier);
+        registry.addString(new StringLogEntry(log, entryName), valueSupplier);
     }
 
+    public static void addString(String entryName, Supplier<String> valueSupplier, AppendMode mode) {
+        registry.addString(new StringLogEntry(log, entryName), valueSupplier, mode);
+    }
+
+    /**
+     * The type of the entry is resolved once here,
+     * prefer the typed add methods as this boxes primitives
+     */
     public static void addCustom(DataLogEntry entry, Supplier<?> valueSupplier) {
-        dataLogMap.put(entry, valueSupplier);
+        registry.addCustom(entry, valueSupplier);
     }
 
     public static void addSendable(Sendable sendable, String pathPrefix, String name) {
@@ -118,50 +208,20 @@ public class DataLogger {
         }
         var builder = new DataLogSendableBuilder(prefix);
         sendable.initSendable(builder);
-        sendables.add(builder);
+        AsyncLogPipeline.addStage(builder);
     }
 
-    public static void update() {
-        for (Map.Entry<DataLogEntry, Supplier<?>> entry : dataLogMap.entrySet()) {
-            var key = entry.getKey();
-            var val = entry.getValue().get();
-            if (key instanceof BooleanArrayLogEntry) {
-                ((BooleanArrayLogEntry) key).append((boolean[]) val);
-
-            } else if (key instanceof BooleanLogEntry) {
-                ((BooleanLogEntry) key).append((boolean) val);
-
-            } else if (key instanceof DoubleArrayLogEntry) {
-                ((DoubleArrayLogEntry) key).append((double[]) val);
-
-            } else if (key instanceof DoubleLogEntry) {
-                ((DoubleLogEntry) key).append((double) val);
-
-            } else if (key instanceof FloatArrayLogEntry) {
-                ((FloatArrayLogEntry) key).append((float[]) val);
-
-            } else if (key instanceof FloatLogEntry) {
-                ((FloatLogEntry) key).append((float) val);
-
-            } else if (key instanceof IntegerArrayLogEntry) {
-                ((IntegerArrayLogEntry) key).append((long[]) val);
-
-            } else if (key instanceof IntegerLogEntry) {
-                ((IntegerLogEntry) key).append((long) val);
-
-            } else if (key instanceof RawLogEntry) {
-                ((RawLogEntry) key).append((byte[]) val);
-
-            } else if (key instanceof StringArrayLogEntry) {
-                ((StringArrayLogEntry) key).append((String[]) val);
-
-            } else if (key instanceof StringLogEntry) {
-                ((StringLogEntry) key).append((String) val);
-            }
-        }
-        sendables.forEach(DataLogSendableBuilder::update);
+    /**
+     * The stage every periodic entry added here is sampled by.
+     * <p>
+     * Visible for testing: package-private only so the benchmarks in src/jmh can
+     * drive it, robot code gets it run through {@link AsyncLogPipeline}.
+     */
+    static DataLogRegistry registry() {
+        return registry;
     }
+
     static {
-        UtilPeriodic.addPeriodicRunnable("DataLogger", DataLogger::update);
+        AsyncLogPipeline.addStage(registry);
     }
 }
@@ -1,6 +1,8 @@
 package com.igknighters.util.logging;
 
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.function.Supplier;
 
@@ -9,19 +11,52 @@ import com.igknighters.util.UtilPeriodic;
 import edu.wpi.first.networktables.NetworkTable;
 import edu.wpi.first.networktables.NetworkTableEntry;
 import edu.wpi.first.networktables.NetworkTableInstance;
+import edu.wpi.first.networktables.RawSubscriber;
 import edu.wpi.first.util.sendable.Sendable;
 import edu.wpi.first.wpilibj.DriverStation;
 import edu.wpi.first.wpilibj.smartdashboard.SendableBuilderImpl;
 
-/**Lighter weight interface for shuffleboard widgets */
+/**
+ * Lighter weight interface for shuffleboard widgets.
+ * <p>
+ * A tab only updates its entries and sendables while another NT client subscribes to it,
+ * checked every {@link #kSubscriptionCheckPeriod} seconds through the server's
+ * {@code $sub$} meta topic for the tab's {@code .type} topic. Dashboards that subscribe
+ * to the whole Shuffleboard table keep every tab active.
+ */
 public class McqShuffleboardApi {
+    public static final double kSubscriptionCheckPeriod = 0.5;
+
     private static final NetworkTable shuffleboardNetworkTable = NetworkTableInstance.getDefault().getTable("Shuffleboard");
     private static final NetworkTable metaNetworkTable = shuffleboardNetworkTable.getSubTable(".metadata");
     private static final NetworkTableEntry tabsEntry = metaNetworkTable.getEntry("Tabs");
     private static final Map<sbPath, ShuffleTable> tables = new HashMap<>();
-    private static final Map<String, Runnable> tasks = new HashMap<>();
+    private static final ArrayList<ShuffleTable> tabList = new ArrayList<>();
     static {
-        UtilPeriodic.addPeriodicRunnable("McqShuffleboard", () -> tasks.values().forEach(Runnable::run));
+        UtilPeriodic.addPeriodicRunnable("McqShuffleboard", McqShuffleboardApi::runTasks, UtilPeriodic.Priority.Low);
+        UtilPeriodic.addPeriodicRunnable("McqShuffleboardSubscriptions", McqShuffleboardApi::checkSubscriptions,
+                kSubscriptionCheckPeriod, UtilPeriodic.Priority.Low, 0);
+    }
+
+    /**
+     * Updates every sendable on an active tab, robot thread only.
+     * <p>
+     * Visible for testing: package-private only so the benchmarks in src/jmh can
+     * call it, robot code gets it run through {@link UtilPeriodic}.
+     */
+    static void runTasks() {
+        for (int i = 0; i < tabList.size(); i++) {
+            var tab = tabList.get(i);
+            if (tab.active) {
+                tab.tasks.values().forEach(Runnable::run);
+            }
+        }
+    }
+
+    private static void checkSubscriptions() {
+        for (int i = 0; i < tabList.size(); i++) {
+            tabList.get(i).checkSubscriptions();
+        }
     }
 
     private static class sbPath {
@@ -91,19 +126,44 @@ public class McqShuffleboardApi {
         private final Map<String, ShuffleEntry> entries = new HashMap<>();
         private final Map<String, ShuffleLayout> layouts = new HashMap<>();
         private final sbPath path;
+        /** Sendables read and publish in the same call so they have to stay on the robot thread */
+        private final Map<String, Runnable> tasks = new LinkedHashMap<>();
+        /** Entry values are sampled on the robot thread and published from the log thread */
+        private final AsyncLogPipeline.SupplierStage entryStage = new AsyncLogPipeline.SupplierStage();
+        private final RawSubscriber subscriptions;
+        private boolean active = true;
 
         private ShuffleTable(String name) {
             path = sbPath.fromPath(name);
             this.table = shuffleboardNetworkTable.getSubTable(path.get(1));
             this.metaTable = metaNetworkTable.getSubTable(path.get(1));
             table.getEntry(".type").setString("ShuffleboardTab");
+            subscriptions = NetworkTableInstance.getDefault()
+                    .getRawTopic("$sub$" + table.getPath() + "/.type")
+                    .subscribe("msgpack", new byte[0]);
+            AsyncLogPipeline.addStage(entryStage);
             tables.put(path, this);
+            tabList.add(this);
+        }
+
+        /** Unknown subscriptions, like before the server published them, count as active */
+        private void checkSubscriptions() {
+            boolean nowActive = NTSubscriptions.countRemote(subscriptions.get()) != 0;
+            if (nowActive != active) {
+                active = nowActive;
+                entryStage.setEnabled(active);
+            }
+        }
+
+        /** @return whether another client is subscribed to the tab, paused tabs don't update */
+        public boolean isActive() {
+            return active;
         }
 
         public ShuffleEntry addEntry(String name, Object value) {
             var entry = table.getEntry(name);
             entry.setValue(value);
-            var out = new ShuffleEntry(path.compress() + "/" + name, entry, metaTable.getSubTable(name));
+            var out = new ShuffleEntry(path.compress() + "/" + name, entry, metaTable.getSubTable(name), null);
             entries.put(name, out);
             return out;
         }
@@ -114,9 +174,11 @@ public class McqShuffleboardApi {
             }
             String entryPath = path.compress() + "/" + name;
             var entry = table.getEntry(name);
-            entry.setValue(valueSupplier.get());
-            tasks.put(entryPath, () -> entry.setValue(valueSupplier.get()));
-            var out = new ShuffleEntry(entryPath, entry, metaTable.getSubTable(name));
+            Object initial = valueSupplier.get();
+            var publisher = CachedPublisher.of(table, name, initial);
+            publisher.accept(initial);
+            entryStage.add(valueSupplier, publisher::accept);
+            var out = new ShuffleEntry(entryPath, entry, metaTable.getSubTable(name), publisher);
             entries.put(name, out);
             return out;
         }
@@ -131,14 +193,14 @@ public class McqShuffleboardApi {
             sendable.initSendable(builder);
             builder.startListeners();
             table.getSubTable(name).getEntry(".controllable").setBoolean(false);
-            tasks.put(path.compress() + "/" + name, () -> builder.update());
+            tasks.put(name, builder::update);
         }
 
         public ShuffleLayout getLayout(String name) {
             if (layouts.keySet().contains(name)) {
                 return layouts.get(name);
             } else {
-                var out = new ShuffleLayout(path.compress() + "/" + name);
+                var out = new ShuffleLayout(path.compress() + "/" + name, this);
                 layouts.put(name, out);
                 return out;
             }
@@ -154,9 +216,11 @@ public class McqShuffleboardApi {
         private final NetworkTable metaTable;
         private final Map<String, ShuffleEntry> entries = new HashMap<>();
         private final sbPath path;
+        private final ShuffleTable tab;
 
-        private ShuffleLayout(String _path) {
+        private ShuffleLayout(String _path, ShuffleTable tab) {
             path = sbPath.fromPath(_path);
+            this.tab = tab;
             this.table = shuffleboardNetworkTable.getSubTable(path.get(1)).getSubTable(path.get(2));
             this.metaTable = metaNetworkTable.getSubTable(path.get(1)).getSubTable(path.get(2));
             table.getEntry(".type").setString("ShuffleboardLayout");
@@ -166,7 +230,7 @@ public class McqShuffleboardApi {
         public ShuffleEntry addEntry(String name, Object value) {
             var entry = table.getEntry(name);
             entry.setValue(value);
-            var out = new ShuffleEntry(path.compress() + "/" + name, entry, metaTable.getSubTable(name));
+            var out = new ShuffleEntry(path.compress() + "/" + name, entry, metaTable.getSubTable(name), null);
             entries.put(name, out);
             return out;
         }
@@ -177,9 +241,11 @@ public class McqShuffleboardApi {
             }
             String entryPath = path.compress() + "/" + name;
             var entry = table.getEntry(name);
-            entry.setValue(valueSupplier.get());
-            tasks.put(entryPath, () -> entry.setValue(valueSupplier.get()));
-            var out = new ShuffleEntry(entryPath, entry, metaTable.getSubTable(name));
+            Object initial = valueSupplier.get();
+            var publisher = CachedPublisher.of(table, name, initial);
+            publisher.accept(initial);
+            tab.entryStage.add(valueSupplier, publisher::accept);
+            var out = new ShuffleEntry(entryPath, entry, metaTable.getSubTable(name), publisher);
             entries.put(name, out);
             return out;
         }
@@ -197,12 +263,14 @@ public class McqShuffleboardApi {
         private final NetworkTableEntry entry;
         private final NetworkTable metaTable;
         private final sbPath path;
+        private final CachedPublisher publisher;
         private NetworkTable propertiesTable;
 
-        private ShuffleEntry(String path, NetworkTableEntry entry, NetworkTable metaTable) {
+        private ShuffleEntry(String path, NetworkTableEntry entry, NetworkTable metaTable, CachedPublisher publisher) {
             this.path = sbPath.fromPath(path);
             this.entry = entry;
             this.metaTable = metaTable;
+            this.publisher = publisher;
             this.metaTable.getEntry("Controllable").setBoolean(false);
         }
 
@@ -214,6 +282,14 @@ public class McqShuffleboardApi {
             return entry;
         }
 
+        /** Publishes a supplied entry at most once every period, does nothing for fixed values */
+        public ShuffleEntry setPublishPeriod(double seconds) {
+            if (publisher != null) {
+                publisher.withPeriod(seconds);
+            }
+            return this;
+        }
+
         public void applyMetadata(Map<MetadataFields, Object> metadata) {
             for (var field : metadata.keySet()) {
                 switch (field) {
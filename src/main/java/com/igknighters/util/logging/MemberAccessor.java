@@ -0,0 +1,180 @@
+package com.igknighters.util.logging;
+
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.function.BooleanSupplier;
+import java.util.function.DoubleSupplier;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+import edu.wpi.first.wpilibj.DriverStation;
+
+/**
+ * Reads an annotated field or no-arg method of a single object.
+ * <p>
+ * Methods are bound with {@link LambdaMetafactory} so the supplier is a plain
+ * call site the JIT can inline, fields go through a method handle fixed to the
+ * requested return type. Either way reads skip the access checks, exception
+ * wrapping and boxing of {@link Field#get} and {@link Method#invoke}.
+ */
+class MemberAccessor {
+    private final String name;
+    private final Object target;
+    private final Method method;
+    private final MethodHandles.Lookup lookup;
+    /** Bound to the target, type {@code ()R} */
+    private final MethodHandle handle;
+
+    private MemberAccessor(String name, Object target, Method method, MethodHandles.Lookup lookup, MethodHandle handle) {
+        this.name = name;
+        this.target = target;
+        this.method = method;
+        this.lookup = lookup;
+        this.handle = handle;
+    }
+
+    public static MemberAccessor of(Field field, Object target) {
+        var lookup = lookupFor(field.getDeclaringClass());
+        try {
+            MethodHandle handle = lookup.unreflectGetter(field);
+            if (!Modifier.isStatic(field.getModifiers())) {
+                handle = handle.bindTo(target);
+            }
+            return new MemberAccessor(field.getName(), target, null, lookup, handle);
+        } catch (IllegalAccessException e) {
+            throw new IllegalArgumentException("Cannot access field " + field.getName(), e);
+        }
+    }
+
+    public static MemberAccessor of(Method method, Object target) {
+        if (method.getParameterCount() > 0) {
+            throw new IllegalArgumentException("Cannot have parameters on a logged method: " + method.getName());
+        }
+        var lookup = lookupFor(method.getDeclaringClass());
+        try {
+            MethodHandle handle = lookup.unreflect(method);
+            if (!Modifier.isStatic(method.getModifiers())) {
+                handle = handle.bindTo(target);
+            }
+            return new MemberAccessor(method.getName(), target, method, lookup, handle);
+        } catch (IllegalAccessException e) {
+            throw new IllegalArgumentException("Cannot access method " + method.getName(), e);
+        }
+    }
+
+    private static MethodHandles.Lookup lookupFor(Class<?> cls) {
+        try {
+            return MethodHandles.privateLookupIn(cls, MethodHandles.lookup());
+        } catch (IllegalAccessException e) {
+            throw new IllegalArgumentException("Cannot access members of " + cls.getSimpleName(), e);
+        }
+    }
+
+    /**
+     * Spins a lambda class calling the method directly,
+     * returns null if the method can't be bound that way
+     */
+    private Object metafactory(Class<?> iface, String ifaceMethod, Class<?> returnType) {
+        if (method == null || Modifier.isStatic(method.getModifiers())) {
+            return null;
+        }
+        try {
+            MethodHandle impl = lookup.unreflect(method);
+            var site = LambdaMetafactory.metafactory(
+                    lookup,
+                    ifaceMethod,
+                    MethodType.methodType(iface, method.getDeclaringClass()),
+                    MethodType.methodType(returnType),
+                    impl,
+                    MethodType.methodType(returnType));
+            return site.getTarget().invoke(target);
+        } catch (Throwable e) {
+            return null;
+        }
+    }
+
+    private void reportError(Throwable e) {
+        DriverStation.reportWarning(name + " supplier is erroring: " + e, false);
+    }
+
+    public DoubleSupplier asDouble() {
+        var lambda = (DoubleSupplier) metafactory(DoubleSupplier.class, "getAsDouble", double.class);
+        if (lambda != null) {
+            return lambda;
+        }
+        MethodHandle typed = handle.asType(MethodType.methodType(double.class));
+        return () -> {
+            try {
+                return (double) typed.invokeExact();
+            } catch (Throwable e) {
+                reportError(e);
+                return 0.0;
+            }
+        };
+    }
+
+    public BooleanSupplier asBoolean() {
+        var lambda = (BooleanSupplier) metafactory(BooleanSupplier.class, "getAsBoolean", boolean.class);
+        if (lambda != null) {
+            return lambda;
+        }
+        MethodHandle typed = handle.asType(MethodType.methodType(boolean.class));
+        return () -> {
+            try {
+                return (boolean) typed.invokeExact();
+            } catch (Throwable e) {
+                reportError(e);
+                return false;
+            }
+        };
+    }
+
+    public LongSupplier asLong() {
+        var lambda = (LongSupplier) metafactory(LongSupplier.class, "getAsLong", long.class);
+        if (lambda != null) {
+            return lambda;
+        }
+        MethodHandle typed = handle.asType(MethodType.methodType(long.class));
+        return () -> {
+            try {
+                return (long) typed.invokeExact();
+            } catch (Throwable e) {
+                reportError(e);
+                return 0L;
+            }
+        };
+    }
+
+    /** Primitive values get boxed, prefer the typed variants where possible */
+    @SuppressWarnings("unchecked")
+    public <T> Supplier<T> asObject() {
+        var lambda = (Supplier<T>) metafactory(Supplier.class, "get", Object.class);
+        if (lambda != null) {
+            return lambda;
+        }
+        MethodHandle typed = handle.asType(MethodType.methodType(Object.class));
+        return () -> {
+            try {
+                return (T) typed.invokeExact();
+            } catch (Throwable e) {
+                reportError(e);
+                return null;
+            }
+        };
+    }
+
+    /** One off read for values that are only needed at setup */
+    public Object get() {
+        try {
+            return handle.invoke();
+        } catch (Throwable e) {
+            reportError(e);
+            return null;
+        }
+    }
+}
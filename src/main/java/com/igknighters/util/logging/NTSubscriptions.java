@@ -0,0 +1,177 @@
+package com.igknighters.util.logging;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Reads the NT4 {@code $sub$<topic>} meta topic, which the server publishes as a
+ * msgpack array with one map per subscription covering the topic, like
+ * {@code [{"client": "shuffleboard@1", "subuid": 3, "options": {...}}]}.
+ * <p>
+ * Subscriptions made on the robot itself (the datalog's NT mirror, entries
+ * the code holds) belong to the local client, whose name is empty.
+ */
+final class NTSubscriptions {
+    /** Returned when the data isn't a subscription list */
+    static final int kUnknown = -1;
+
+    private final byte[] data;
+    private int pos = 0;
+
+    private NTSubscriptions(byte[] data) {
+        this.data = data;
+    }
+
+    /** @return how many subscriptions from other clients there are, or {@link #kUnknown} */
+    static int countRemote(byte[] data) {
+        if (data == null || data.length == 0) {
+            return kUnknown;
+        }
+        try {
+            return new NTSubscriptions(data).readSubscriptions();
+        } catch (IndexOutOfBoundsException | IllegalArgumentException e) {
+            return kUnknown;
+        }
+    }
+
+    private int readSubscriptions() {
+        int subscriptions = readArrayHeader();
+        int remote = 0;
+        for (int i = 0; i < subscriptions; i++) {
+            int fields = readMapHeader();
+            String client = null;
+            for (int j = 0; j < fields; j++) {
+                Object key = readValue();
+                Object value = readValue();
+                if ("client".equals(key) && value instanceof String) {
+                    client = (String) value;
+                }
+            }
+            if (client != null && !client.isEmpty()) {
+                remote++;
+            }
+        }
+        return remote;
+    }
+
+    private int u8() {
+        return data[pos++] & 0xff;
+    }
+
+    private int u16() {
+        return (u8() << 8) | u8();
+    }
+
+    private long u32() {
+        return ((long) u16() << 16) | u16();
+    }
+
+    private int length(long length) {
+        if (length > data.length - pos) {
+            throw new IllegalArgumentException("Length past the end of the data");
+        }
+        return (int) length;
+    }
+
+    private void skip(int length) {
+        pos += length(length);
+    }
+
+    private int readArrayHeader() {
+        int b = u8();
+        if ((b & 0xf0) == 0x90) {
+            return b & 0x0f;
+        } else if (b == 0xdc) {
+            return u16();
+        } else if (b == 0xdd) {
+            return length(u32());
+        }
+        throw new IllegalArgumentException("Not an array");
+    }
+
+    private int readMapHeader() {
+        int b = u8();
+        if ((b & 0xf0) == 0x80) {
+            return b & 0x0f;
+        } else if (b == 0xde) {
+            return u16();
+        } else if (b == 0xdf) {
+            return length(u32());
+        }
+        throw new IllegalArgumentException("Not a map");
+    }
+
+    private String readString(int length) {
+        String out = new String(data, pos, length(length), StandardCharsets.UTF_8);
+        pos += length;
+        return out;
+    }
+
+    /** @return strings as a String, everything else is skipped and returns null */
+    private Object readValue() {
+        int b = u8();
+        if (b <= 0x7f || b >= 0xe0) {
+            // fixint
+            return null;
+        } else if ((b & 0xe0) == 0xa0) {
+            return readString(b & 0x1f);
+        } else if ((b & 0xf0) == 0x90 || (b & 0xf0) == 0x80) {
+            pos--;
+            skipContainer();
+            return null;
+        }
+        switch (b) {
+            case 0xc0: // nil
+            case 0xc2: // false
+            case 0xc3: // true
+                return null;
+            case 0xcc: case 0xd0:
+                skip(1);
+                return null;
+            case 0xcd: case 0xd1:
+                skip(2);
+                return null;
+            case 0xca: case 0xce: case 0xd2:
+                skip(4);
+                return null;
+            case 0xcb: case 0xcf: case 0xd3:
+                skip(8);
+                return null;
+            case 0xd9:
+                return readString(u8());
+            case 0xda:
+                return readString(u16());
+            case 0xdb:
+                return readString(length(u32()));
+            case 0xc4:
+                skip(u8());
+                return null;
+            case 0xc5:
+                skip(u16());
+                return null;
+            case 0xc6:
+                skip(length(u32()));
+                return null;
+            case 0xdc: case 0xdd: case 0xde: case 0xdf:
+                pos--;
+                skipContainer();
+                return null;
+            default:
+                throw new IllegalArgumentException("Unsupported msgpack type 0x" + Integer.toHexString(b));
+        }
+    }
+
+    private void skipContainer() {
+        int b = data[pos] & 0xff;
+        if ((b & 0xf0) == 0x90 || b == 0xdc || b == 0xdd) {
+            int count = readArrayHeader();
+            for (int i = 0; i < count; i++) {
+                readValue();
+            }
+        } else {
+            int count = readMapHeader();
+            for (int i = 0; i < count * 2; i++) {
+                readValue();
+            }
+        }
+    }
+}
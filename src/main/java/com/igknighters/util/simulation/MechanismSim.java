@@ -0,0 +1,154 @@
+package com.igknighters.util.simulation;
+
+import edu.wpi.first.math.system.plant.DCMotor;
+import edu.wpi.first.wpilibj.simulation.ElevatorSim;
+import edu.wpi.first.wpilibj.simulation.FlywheelSim;
+import edu.wpi.first.wpilibj.simulation.SingleJointedArmSim;
+
+/**
+ * A physics model of a mechanism driven by motors, stepped by {@link SimEngine}.
+ * <p>
+ * Everything is in mechanism rotations, the engine multiplies by {@link #getGearing()}
+ * to get rotor rotations for the TalonFX sim state.
+ */
+public abstract class MechanismSim {
+    private final double gearing;
+
+    /**
+     * @param gearing rotor rotations per mechanism rotation
+     */
+    protected MechanismSim(double gearing) {
+        this.gearing = gearing;
+    }
+
+    /** @return rotor rotations per mechanism rotation */
+    public double getGearing() {
+        return gearing;
+    }
+
+    public abstract void setInputVoltage(double volts);
+
+    public abstract void update(double dtSeconds);
+
+    /** @return the mechanism position in rotations */
+    public abstract double getRotations();
+
+    /** @return the mechanism velocity in rotations per second */
+    public abstract double getRps();
+
+    public abstract double getCurrentDrawAmps();
+
+    /**
+     * @param gearing rotor rotations per flywheel rotation
+     * @param moiKgMetersSquared the flywheel's moment of inertia
+     */
+    public static MechanismSim flywheel(DCMotor motors, double gearing, double moiKgMetersSquared) {
+        var sim = new FlywheelSim(motors, gearing, moiKgMetersSquared);
+        return new MechanismSim(gearing) {
+            private double rotations = 0.0;
+
+            @Override
+            public void setInputVoltage(double volts) {
+                sim.setInputVoltage(volts);
+            }
+
+            @Override
+            public void update(double dtSeconds) {
+                sim.update(dtSeconds);
+                // the flywheel sim only tracks velocity
+                rotations += getRps() * dtSeconds;
+            }
+
+            @Override
+            public double getRotations() {
+                return rotations;
+            }
+
+            @Override
+            public double getRps() {
+                return sim.getAngularVelocityRadPerSec() / (2 * Math.PI);
+            }
+
+            @Override
+            public double getCurrentDrawAmps() {
+                return sim.getCurrentDrawAmps();
+            }
+        };
+    }
+
+    /**
+     * Mechanism rotations are drum rotations, so {@code height = rotations * 2pi * drumRadius}
+     *
+     * @param gearing rotor rotations per drum rotation
+     */
+    public static MechanismSim elevator(DCMotor motors, double gearing, double carriageMassKg,
+            double drumRadiusMeters, double minHeightMeters, double maxHeightMeters) {
+        var sim = new ElevatorSim(motors, gearing, carriageMassKg, drumRadiusMeters,
+                minHeightMeters, maxHeightMeters, true);
+        double metersPerRotation = 2 * Math.PI * drumRadiusMeters;
+        return new MechanismSim(gearing) {
+            @Override
+            public void setInputVoltage(double volts) {
+                sim.setInputVoltage(volts);
+            }
+
+            @Override
+            public void update(double dtSeconds) {
+                sim.update(dtSeconds);
+            }
+
+            @Override
+            public double getRotations() {
+                return sim.getPositionMeters() / metersPerRotation;
+            }
+
+            @Override
+            public double getRps() {
+                return sim.getVelocityMetersPerSecond() / metersPerRotation;
+            }
+
+            @Override
+            public double getCurrentDrawAmps() {
+                return sim.getCurrentDrawAmps();
+            }
+        };
+    }
+
+    /**
+     * A single jointed arm with gravity, 0 rotations is horizontal
+     *
+     * @param gearing rotor rotations per arm rotation
+     * @param moiKgMetersSquared see {@link SingleJointedArmSim#estimateMOI(double, double)}
+     */
+    public static MechanismSim arm(DCMotor motors, double gearing, double moiKgMetersSquared,
+            double armLengthMeters, double minAngleRads, double maxAngleRads) {
+        var sim = new SingleJointedArmSim(motors, gearing, moiKgMetersSquared, armLengthMeters,
+                minAngleRads, maxAngleRads, true);
+        return new MechanismSim(gearing) {
+            @Override
+            public void setInputVoltage(double volts) {
+                sim.setInputVoltage(volts);
+            }
+
+            @Override
+            public void update(double dtSeconds) {
+                sim.update(dtSeconds);
+            }
+
+            @Override
+            public double getRotations() {
+                return sim.getAngleRads() / (2 * Math.PI);
+            }
+
+            @Override
+            public double getRps() {
+                return sim.getVelocityRadPerSec() / (2 * Math.PI);
+            }
+
+            @Override
+            public double getCurrentDrawAmps() {
+                return sim.getCurrentDrawAmps();
+            }
+        };
+    }
+}
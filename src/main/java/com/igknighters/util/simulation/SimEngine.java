@@ -0,0 +1,134 @@
+package com.igknighters.util.simulation;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+import com.ctre.phoenixpro.sim.CANcoderSimState;
+import com.ctre.phoenixpro.sim.TalonFXSimState;
+import com.igknighters.util.hardware.McqCanCoder;
+import com.igknighters.util.hardware.McqTalonFX;
+import com.igknighters.util.logging.BootupLogger;
+
+import edu.wpi.first.wpilibj.RobotController;
+import edu.wpi.first.wpilibj.TimedRobot;
+import edu.wpi.first.wpilibj.simulation.BatterySim;
+import edu.wpi.first.wpilibj.simulation.RoboRioSim;
+
+/**
+ * Drives the Phoenix sim state of simulated hardware wrappers from {@link MechanismSim} models.
+ * <p>
+ * Every {@link #step(double)} each model takes the voltage its lead motor is applying,
+ * moves forward by dt and writes the new rotor position and velocity to every attached motor
+ * and the mechanism position to every attached CANcoder. The battery voltage sags with the
+ * total current draw of all models.
+ *
+ * <pre>{@code
+ * // in the subsystem constructor
+ * motor.ifSimEnable();
+ * SimEngine.attach(MechanismSim.flywheel(DCMotor.getFalcon500(1), 1.5, 0.004), motor);
+ * }</pre>
+ */
+public class SimEngine {
+    private static final ArrayList<Attachment> attachments = new ArrayList<>();
+    private static double[] currents = new double[0];
+
+    private static class Attachment {
+        final MechanismSim model;
+        final TalonFXSimState[] motors;
+        CANcoderSimState[] coders = new CANcoderSimState[0];
+        double[] coderRatios = new double[0];
+
+        Attachment(MechanismSim model, TalonFXSimState[] motors) {
+            this.model = model;
+            this.motors = motors;
+        }
+    }
+
+    /**
+     * Attaches a model to the motors driving it, does nothing outside of simulation
+     * or if a motor has no hardware, call {@link McqTalonFX#ifSimEnable()} first
+     *
+     * @param motors the first motor's output voltage drives the model, the rest only get fed back
+     */
+    public static void attach(MechanismSim model, McqTalonFX... motors) {
+        if (!TimedRobot.isSimulation() || motors.length == 0) {
+            return;
+        }
+        var states = new TalonFXSimState[motors.length];
+        for (int i = 0; i < motors.length; i++) {
+            var state = motors[i].getSimState();
+            if (!state.hasHardware()) {
+                BootupLogger.BootupLog("TalonFX " + motors[i].getDeviceID() + " has no sim state, not simulated");
+                return;
+            }
+            states[i] = state.getValue();
+        }
+        attachments.add(new Attachment(model, states));
+        currents = new double[attachments.size()];
+    }
+
+    /**
+     * Feeds a model's position to a CANcoder, the model has to be attached to its motors first
+     *
+     * @param sensorRatio CANcoder rotations per mechanism rotation
+     */
+    public static void attach(MechanismSim model, McqCanCoder coder, double sensorRatio) {
+        if (!TimedRobot.isSimulation()) {
+            return;
+        }
+        var state = coder.getSimState();
+        if (!state.hasHardware()) {
+            BootupLogger.BootupLog("CANCoder " + coder.getDeviceID() + " has no sim state, not simulated");
+            return;
+        }
+        for (var attachment : attachments) {
+            if (attachment.model == model) {
+                int size = attachment.coders.length;
+                attachment.coders = Arrays.copyOf(attachment.coders, size + 1);
+                attachment.coderRatios = Arrays.copyOf(attachment.coderRatios, size + 1);
+                attachment.coders[size] = state.getValue();
+                attachment.coderRatios[size] = sensorRatio;
+                return;
+            }
+        }
+        throw new IllegalArgumentException("Attach the model to its motors before attaching a CANCoder");
+    }
+
+    /** Steps every model by the default robot period */
+    public static void step() {
+        step(TimedRobot.kDefaultPeriod);
+    }
+
+    /** Steps every model by dt, only call from the robot thread */
+    public static void step(double dtSeconds) {
+        if (attachments.isEmpty()) {
+            return;
+        }
+        double battery = RobotController.getBatteryVoltage();
+        for (int i = 0; i < attachments.size(); i++) {
+            var attachment = attachments.get(i);
+            var model = attachment.model;
+            for (var motor : attachment.motors) {
+                motor.setSupplyVoltage(battery);
+            }
+            model.setInputVoltage(attachment.motors[0].getMotorVoltage());
+            model.update(dtSeconds);
+
+            double rotorRotations = model.getRotations() * model.getGearing();
+            double rotorRps = model.getRps() * model.getGearing();
+            for (var motor : attachment.motors) {
+                motor.setRawRotorPosition(rotorRotations);
+                motor.setRotorVelocity(rotorRps);
+            }
+            for (int j = 0; j < attachment.coders.length; j++) {
+                var coder = attachment.coders[j];
+                double ratio = attachment.coderRatios[j];
+                coder.setSupplyVoltage(battery);
+                coder.setRawPosition(model.getRotations() * ratio);
+                coder.setVelocity(model.getRps() * ratio);
+            }
+            currents[i] = model.getCurrentDrawAmps();
+        }
+        RoboRioSim.setVInVoltage(BatterySim.calculateDefaultBatteryLoadedVoltage(currents));
+    }
+}
@@ -0,0 +1,124 @@
+package com.igknighters.util.testing;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * The record format {@link TunableStore} saves tuned values in, one record is a type byte,
+ * the key as {@link DataOutputStream#writeUTF} and the value. Reading keeps the last
+ * record of every key.
+ */
+class TunableFile {
+    private static final byte TYPE_DOUBLE = 1;
+    private static final byte TYPE_BOOLEAN = 2;
+    private static final byte TYPE_LONG = 3;
+    private static final byte TYPE_STRING = 4;
+
+    /** What a file held */
+    static class Contents {
+        final Map<String, Object> values = new HashMap<>();
+        /** Every complete record, including ones a later record of the same key replaced */
+        int records = 0;
+        /** The file ends in a record cut short, or one of an unknown type */
+        boolean truncated = false;
+
+        /** @return whether rewriting the file is worth it, always when it's truncated */
+        boolean needsCompaction(int ratio) {
+            return truncated || records > values.size() * ratio;
+        }
+    }
+
+    /** @return the records in the file, empty if there is no file */
+    static Contents read(Path path) throws IOException {
+        var contents = new Contents();
+        if (!Files.exists(path)) {
+            return contents;
+        }
+        try (var in = new DataInputStream(new BufferedInputStream(Files.newInputStream(path)))) {
+            while (true) {
+                byte type;
+                try {
+                    type = in.readByte();
+                } catch (EOFException e) {
+                    break;
+                }
+                try {
+                    String key = in.readUTF();
+                    Object value = readValue(in, type);
+                    if (value == null) {
+                        contents.truncated = true;
+                        break;
+                    }
+                    contents.values.put(key, value);
+                    contents.records++;
+                } catch (EOFException e) {
+                    contents.truncated = true;
+                    break;
+                }
+            }
+        }
+        return contents;
+    }
+
+    /** Replaces the file with one record per value, through a temp file so it's never half written */
+    static void writeCompacted(Path path, Map<String, Object> values) throws IOException {
+        Path temp = path.resolveSibling(path.getFileName() + ".tmp");
+        try (var out = Files.newOutputStream(temp)) {
+            for (var entry : values.entrySet()) {
+                out.write(encode(entry.getKey(), entry.getValue()));
+            }
+        }
+        Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private static Object readValue(DataInputStream in, byte type) throws IOException {
+        switch (type) {
+            case TYPE_DOUBLE:
+                return in.readDouble();
+            case TYPE_BOOLEAN:
+                return in.readBoolean();
+            case TYPE_LONG:
+                return in.readLong();
+            case TYPE_STRING:
+                return in.readUTF();
+            default:
+                return null;
+        }
+    }
+
+    /**
+     * @param value a Double, Boolean or Long, anything else is saved as its string
+     * @return the record for the value
+     */
+    static byte[] encode(String key, Object value) throws IOException {
+        var bytes = new ByteArrayOutputStream(32);
+        var out = new DataOutputStream(bytes);
+        if (value instanceof Double) {
+            out.writeByte(TYPE_DOUBLE);
+            out.writeUTF(key);
+            out.writeDouble((Double) value);
+        } else if (value instanceof Boolean) {
+            out.writeByte(TYPE_BOOLEAN);
+            out.writeUTF(key);
+            out.writeBoolean((Boolean) value);
+        } else if (value instanceof Long) {
+            out.writeByte(TYPE_LONG);
+            out.writeUTF(key);
+            out.writeLong((Long) value);
+        } else {
+            out.writeByte(TYPE_STRING);
+            out.writeUTF(key);
+            out.writeUTF(value.toString());
+        }
+        return bytes.toByteArray();
+    }
+}
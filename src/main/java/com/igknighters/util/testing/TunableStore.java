@@ -0,0 +1,120 @@
+package com.igknighters.util.testing;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import com.igknighters.util.logging.BootupLogger;
+
+import edu.wpi.first.wpilibj.DriverStation;
+import edu.wpi.first.wpilibj.Filesystem;
+
+/**
+ * Keeps tuned values across reboots in an append-only file in the operating directory,
+ * outside of deploy so a code deploy doesn't wipe it.
+ * <p>
+ * Every change appends one small {@link TunableFile} record on a background thread, the file is read
+ * once when the class loads and the last record of every key wins. A record cut short by
+ * a power loss is dropped. The file is compacted on boot once it holds
+ * {@link #kCompactRatio} times more records than keys. {@link #clear()} deletes it.
+ */
+class TunableStore {
+    public static final String kFileName = "tunables.bin";
+    public static final int kCompactRatio = 4;
+
+    private static final Map<String, Object> values = new HashMap<>();
+    private static final ExecutorService writer = Executors.newSingleThreadExecutor(r -> {
+        var thread = new Thread(r, "TunableStore");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private static FileChannel channel;
+
+    static {
+        load();
+    }
+
+    private static Path file() {
+        return Filesystem.getOperatingDirectory().toPath().resolve(kFileName);
+    }
+
+    private static void load() {
+        Path path = file();
+        TunableFile.Contents contents;
+        try {
+            contents = TunableFile.read(path);
+        } catch (IOException e) {
+            DriverStation.reportWarning("Could not read " + kFileName + ": " + e.getMessage(), false);
+            return;
+        }
+        values.putAll(contents.values);
+        if (contents.records == 0 && !contents.truncated) {
+            return;
+        }
+        BootupLogger.BootupLog("Loaded " + values.size() + " tuned values from " + kFileName);
+        // rewriting drops a half written record so appends don't land behind it
+        if (contents.needsCompaction(kCompactRatio)) {
+            try {
+                TunableFile.writeCompacted(path, values);
+            } catch (IOException e) {
+                DriverStation.reportWarning("Could not compact " + kFileName + ": " + e.getMessage(), false);
+            }
+        }
+    }
+
+    /** @return the saved value for the key, null if there is none. Robot thread only */
+    static Object get(String key) {
+        return values.get(key);
+    }
+
+    /**
+     * Saves the value if it changed, the write happens off the robot thread. Robot thread only
+     *
+     * @param value a Double, Boolean, Long or String
+     */
+    static void put(String key, Object value) {
+        if (value == null || value.equals(values.get(key))) {
+            return;
+        }
+        values.put(key, value);
+        writer.execute(() -> append(key, value));
+    }
+
+    /** Forgets every saved value and deletes the file after the writes queued before it. Robot thread only */
+    static void clear() {
+        values.clear();
+        writer.execute(() -> {
+            try {
+                if (channel != null) {
+                    channel.close();
+                    channel = null;
+                }
+                Files.deleteIfExists(file());
+            } catch (IOException e) {
+                DriverStation.reportWarning("Could not delete " + kFileName + ": " + e.getMessage(), false);
+            }
+        });
+    }
+
+    private static void append(String key, Object value) {
+        try {
+            if (channel == null) {
+                channel = FileChannel.open(file(), StandardOpenOption.CREATE,
+                        StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+            }
+            channel.write(ByteBuffer.wrap(TunableFile.encode(key, value)));
+            // the robot gets power cycled without warning
+            channel.force(false);
+        } catch (IOException e) {
+            DriverStation.reportWarning("Could not save tuned value " + key + ": " + e.getMessage(), false);
+        }
+    }
+
+}
@@ -1,23 +1,111 @@
 package com.igknighters.util.testing;
 
 import java.util.Collection;
+import java.util.EnumSet;
 import java.util.LinkedHashSet;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.Consumer;
 
 import com.igknighters.constants.ConstValues;
 import com.igknighters.util.UtilPeriodic;
+import com.igknighters.util.logging.BootupLogger;
 
 import edu.wpi.first.networktables.NetworkTable;
 import edu.wpi.first.networktables.NetworkTableEntry;
+import edu.wpi.first.networktables.NetworkTableEvent;
 import edu.wpi.first.networktables.NetworkTableInstance;
+import edu.wpi.first.networktables.NetworkTableValue;
 
+/**
+ * Tunables are driven by NetworkTables listeners, an edit from a dashboard is queued
+ * on the NT thread and applied on the robot thread the next cycle, so the loop
+ * only pays for values that actually changed.
+ * <p>
+ * Tuned values are saved across reboots, every saved value that gets applied is written to
+ * the bootup log and setting {@code TunableValues/ClearSaved} to true deletes them.
+ */
 public class TunableValuesAPI {
     private static final Collection<Runnable> tunableRunnables = new LinkedHashSet<>();
+    private static Runnable[] runnableArray = new Runnable[0];
+    private static final ConcurrentLinkedQueue<Change> changes = new ConcurrentLinkedQueue<>();
     private static final NetworkTable tunableNetworkTable = NetworkTableInstance.getDefault()
             .getTable("TunableValues");
 
-    /** Expect anywhere from 20-120ms latency due to the segment optimization */
+    private static class Change {
+        final Consumer<NetworkTableValue> onChange;
+        final NetworkTableValue value;
+
+        Change(Consumer<NetworkTableValue> onChange, NetworkTableValue value) {
+            this.onChange = onChange;
+            this.value = value;
+        }
+    }
+
+    /**
+     * Polls the runnable every cycle, prefer {@link #addTunableListener} which costs nothing
+     * until the value changes.
+     * Expect anywhere from 20-120ms latency due to the segment optimization
+     */
     public static void addTunableRunnable(Runnable runnable) {
-        tunableRunnables.add(runnable);
+        if (tunableRunnables.add(runnable)) {
+            runnableArray = tunableRunnables.toArray(new Runnable[0]);
+        }
+    }
+
+    /**
+     * Calls onChange on the robot thread at the start of the next cycle whenever
+     * another client changes the entry, changes the robot makes itself are ignored
+     */
+    public static void addTunableListener(NetworkTableEntry entry, Consumer<NetworkTableValue> onChange) {
+        NetworkTableInstance.getDefault().addListener(entry, EnumSet.of(NetworkTableEvent.Kind.kValueRemote),
+                event -> changes.add(new Change(onChange, event.valueData.value)));
+    }
+
+    /**
+     * Like {@link #addTunableListener} but the value survives reboots, a saved value is
+     * published and passed to onChange right away and every change is saved under the key
+     *
+     * @param key where the value is saved, like {@code subsystem/field}
+     * @param onChange gets the raw value, a Double, Boolean, Long or String
+     */
+    public static void addPersistentTunable(String key, NetworkTableEntry entry, Consumer<Object> onChange) {
+        Object saved = getSaved(key);
+        if (saved != null) {
+            entry.setValue(saved);
+            onChange.accept(saved);
+        }
+        addTunableListener(entry, value -> {
+            onChange.accept(value.getValue());
+            TunableStore.put(key, value.getValue());
+        });
+    }
+
+    /**
+     * Passes the saved value for the key to apply if there is one,
+     * for when tunables aren't published but tuned values should still be used
+     */
+    public static void applySaved(String key, Consumer<Object> apply) {
+        Object saved = getSaved(key);
+        if (saved != null) {
+            apply.accept(saved);
+        }
+    }
+
+    private static Object getSaved(String key) {
+        Object saved = TunableStore.get(key);
+        if (saved != null) {
+            BootupLogger.BootupLog("Applied saved tunable " + key + " = " + saved);
+        }
+        return saved;
+    }
+
+    /**
+     * Deletes every saved tuned value, tunables keep their current values until the next boot
+     * where they start from their defaults again. Robot thread only
+     */
+    public static void clearSaved() {
+        TunableStore.clear();
+        BootupLogger.BootupLog("Cleared saved tunables");
     }
 
     public enum TunableValePlacement {
@@ -67,17 +155,18 @@ public class TunableValuesAPI {
         public TunableDouble(String table, String name, Double defaultValue) {
             this.entry = getTunableNTEntry(table, name);
             entry.setDouble(defaultValue);
+            addPersistentTunable(table + "/" + name, entry, value -> {});
         }
 
         public TunableDouble(String name, Double defaultValue) {
             this.entry = getTunableNTEntry(name);
             entry.setDouble(defaultValue);
+            addPersistentTunable(name, entry, value -> {});
         }
 
         /**Default value is 0.0 */
         public TunableDouble(String name) {
-            this.entry = getTunableNTEntry(name);
-            entry.setDouble(0.0);
+            this(name, 0.0);
         }
 
         public Double get() {
@@ -95,17 +184,18 @@ public class TunableValuesAPI {
         public TunableBoolean(String table, String name, Boolean defaultValue) {
             this.entry = getTunableNTEntry(table, name);
             entry.setBoolean(defaultValue);
+            addPersistentTunable(table + "/" + name, entry, value -> {});
         }
 
         public TunableBoolean(String name, Boolean defaultValue) {
             this.entry = getTunableNTEntry(name);
             entry.setBoolean(defaultValue);
+            addPersistentTunable(name, entry, value -> {});
         }
 
         /**Default value is false */
         public TunableBoolean(String name) {
-            this.entry = getTunableNTEntry(name);
-            entry.setBoolean(false);
+            this(name, false);
         }
 
         public Boolean get() {
@@ -118,23 +208,56 @@ public class TunableValuesAPI {
     }
 
     private static int lastRan = 0;
+
+    /**
+     * Runs the next segment of tunable runnables, or all of them if there are few.
+     * <p>
+     * Visible for testing: package-private only so the benchmarks in src/jmh can
+     * call it, robot code gets it run through {@link UtilPeriodic}.
+     */
+    static void updateSegment() {
+        var runnables = runnableArray;
+        if (runnables.length < 20) {
+            for (var runnable : runnables) {
+                runnable.run();
+            }
+        } else {
+            int segmentSize = runnables.length / 5 + 1;
+            for (int i = lastRan; i < lastRan + segmentSize; i++) {
+                if (i >= runnables.length) {
+                    lastRan = 0;
+                    break;
+                }
+                runnables[i].run();
+            }
+            lastRan += segmentSize;
+        }
+    }
+
+    /** Applies every change queued since the last cycle, in the order they arrived */
+    private static void drainChanges() {
+        Change change;
+        while ((change = changes.poll()) != null) {
+            change.onChange.accept(change.value);
+        }
+    }
+
     static {
         if (ConstValues.DEBUG) {
-            UtilPeriodic.addPeriodicRunnable("Tunable Updating", () -> {
-                if (tunableRunnables.size() < 20) {
-                    tunableRunnables.forEach(Runnable::run);
-                } else {
-                    int segmentSize = tunableRunnables.size() / 5 + 1;
-                    for (int i = lastRan; i < lastRan + segmentSize; i++) {
-                        if (i >= tunableRunnables.size()) {
-                            lastRan = 0;
-                            break;
-                        }
-                        tunableRunnables.toArray(new Runnable[0])[i].run();
-                    }
-                    lastRan += segmentSize;
+            NetworkTableEntry clear = tunableNetworkTable.getEntry("ClearSaved");
+            clear.setBoolean(false);
+            addTunableListener(clear, value -> {
+                if (value.isBoolean() && value.getBoolean()) {
+                    clearSaved();
+                    clear.setBoolean(false);
                 }
             });
         }
+        UtilPeriodic.addPeriodicRunnable("Tunable Updating", () -> {
+            drainChanges();
+            if (ConstValues.DEBUG) {
+                updateSegment();
+            }
+        });
     }
 }
@@ -0,0 +1,105 @@
+package com.igknighters.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+class LatencyHistogramTest {
+    /** Bigger than anything the tests look up, so it never caps a percentile */
+    private static final long kOutlier = 1L << 40;
+
+    @Test
+    void emptyHistogram() {
+        var histogram = new LatencyHistogram();
+        assertEquals(0, histogram.getCount());
+        assertEquals(0, histogram.getPercentile(0.5));
+        assertEquals(0.0, histogram.getMean(), 0.0);
+    }
+
+    @Test
+    void smallValuesAreExact() {
+        var histogram = new LatencyHistogram();
+        for (long i = 0; i < 32; i++) {
+            histogram.record(i);
+        }
+        assertEquals(0, histogram.getPercentile(0.0));
+        assertEquals(15, histogram.getPercentile(0.5));
+        assertEquals(30, histogram.getPercentile(0.95));
+        assertEquals(31, histogram.getPercentile(1.0));
+        assertEquals(15.5, histogram.getMean(), 1e-9);
+    }
+
+    @Test
+    void bucketEdges() {
+        // past 32ns every power of two is split into 16 buckets
+        long[][] edges = {
+                { 32, 33 }, { 33, 33 }, { 34, 35 }, { 63, 63 },
+                { 64, 67 }, { 67, 67 }, { 68, 71 }, { 127, 127 },
+                { 1000, 1023 }, { 1024, 1087 } };
+        for (long[] edge : edges) {
+            var histogram = new LatencyHistogram();
+            histogram.record(edge[0]);
+            histogram.record(kOutlier);
+            assertEquals(edge[1], histogram.getPercentile(0.5), "bucket of " + edge[0]);
+        }
+    }
+
+    @Test
+    void errorIsAtMostASixteenth() {
+        for (long value = 32; value < (1L << 36); value += value / 7 + 1) {
+            var histogram = new LatencyHistogram();
+            histogram.record(value);
+            histogram.record(kOutlier << 4);
+            long reported = histogram.getPercentile(0.5);
+            assertTrue(reported >= value, value + " reported as " + reported);
+            assertTrue(reported - value <= value / 16, value + " reported as " + reported);
+        }
+    }
+
+    @Test
+    void percentileNeverPassesTheMax() {
+        var histogram = new LatencyHistogram();
+        histogram.record(1000);
+        assertEquals(1000, histogram.getPercentile(0.5));
+        assertEquals(1000, histogram.getPercentile(1.0));
+
+        histogram.record(Long.MAX_VALUE / 2);
+        assertTrue(histogram.getPercentile(1.0) <= histogram.getMax());
+    }
+
+    @Test
+    void percentilesSplitTheCount() {
+        var histogram = new LatencyHistogram();
+        for (int i = 0; i < 99; i++) {
+            histogram.record(10);
+        }
+        histogram.record(20_000_000);
+        assertEquals(10, histogram.getPercentile(0.5));
+        assertEquals(10, histogram.getPercentile(0.99));
+        assertEquals(20_000_000, histogram.getPercentile(0.999));
+        assertEquals(20_000_000, histogram.getMax());
+        assertEquals(100, histogram.getCount());
+    }
+
+    @Test
+    void negativeValuesCountAsZero() {
+        var histogram = new LatencyHistogram();
+        histogram.record(-5);
+        assertEquals(1, histogram.getCount());
+        assertEquals(0, histogram.getPercentile(1.0));
+    }
+
+    @Test
+    void resetClearsEverything() {
+        var histogram = new LatencyHistogram();
+        histogram.record(500);
+        histogram.record(kOutlier);
+        histogram.reset();
+        assertEquals(0, histogram.getCount());
+        assertEquals(0, histogram.getMax());
+        assertEquals(0, histogram.getPercentile(1.0));
+        histogram.record(7);
+        assertEquals(7, histogram.getPercentile(1.0));
+    }
+}
@@ -0,0 +1,127 @@
+package com.igknighters.util.logging;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import org.junit.jupiter.api.Test;
+
+class NTSubscriptionsTest {
+    /** Writes just enough msgpack for a subscription list */
+    private static class Pack {
+        private final ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        Pack raw(int... bytes) {
+            for (int b : bytes) {
+                out.write(b);
+            }
+            return this;
+        }
+
+        Pack str(String value) {
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            if (bytes.length < 32) {
+                raw(0xa0 | bytes.length);
+            } else {
+                raw(0xd9, bytes.length);
+            }
+            out.write(bytes, 0, bytes.length);
+            return this;
+        }
+
+        /** {@code {"client": client, "subuid": uid, "options": {"periodic": 0.1, "all": false}}} */
+        Pack subscription(String client, int uid) {
+            raw(0x83);
+            str("client").str(client);
+            str("subuid").raw(0xcd, uid >> 8, uid & 0xff);
+            str("options").raw(0x82);
+            str("periodic").raw(0xcb, 0x3f, 0xb9, 0x99, 0x99, 0x99, 0x99, 0x99, 0x9a);
+            str("all").raw(0xc2);
+            return this;
+        }
+
+        byte[] bytes() {
+            return out.toByteArray();
+        }
+    }
+
+    @Test
+    void emptyListHasNoRemote() {
+        assertEquals(0, NTSubscriptions.countRemote(new byte[] { (byte) 0x90 }));
+    }
+
+    @Test
+    void countsOnlyRemoteClients() {
+        byte[] data = new Pack().raw(0x93)
+                .subscription("", 1)
+                .subscription("shuffleboard@1", 300)
+                .subscription("glass@2", 7)
+                .bytes();
+        assertEquals(2, NTSubscriptions.countRemote(data));
+    }
+
+    @Test
+    void localSubscriptionsAreNotRemote() {
+        byte[] data = new Pack().raw(0x92).subscription("", 1).subscription("", 2).bytes();
+        assertEquals(0, NTSubscriptions.countRemote(data));
+    }
+
+    @Test
+    void longHeadersAndStrings() {
+        String client = "a-dashboard-with-a-long-client-name@12";
+        byte[] data = new Pack().raw(0xdc, 0x00, 0x01).subscription(client, 1).bytes();
+        assertEquals(1, NTSubscriptions.countRemote(data));
+    }
+
+    @Test
+    void nullOrEmptyIsUnknown() {
+        assertEquals(NTSubscriptions.kUnknown, NTSubscriptions.countRemote(null));
+        assertEquals(NTSubscriptions.kUnknown, NTSubscriptions.countRemote(new byte[0]));
+    }
+
+    @Test
+    void notAnArrayIsUnknown() {
+        assertEquals(NTSubscriptions.kUnknown, NTSubscriptions.countRemote(new Pack().str("client").bytes()));
+        assertEquals(NTSubscriptions.kUnknown,
+                NTSubscriptions.countRemote(new Pack().raw(0x81).str("client").str("x").bytes()));
+    }
+
+    @Test
+    void elementThatIsNotAMapIsUnknown() {
+        assertEquals(NTSubscriptions.kUnknown, NTSubscriptions.countRemote(new Pack().raw(0x91, 0x01).bytes()));
+    }
+
+    @Test
+    void unsupportedTypeIsUnknown() {
+        // 0xc1 is never used in msgpack
+        byte[] data = new Pack().raw(0x91, 0x81).str("client").raw(0xc1).bytes();
+        assertEquals(NTSubscriptions.kUnknown, NTSubscriptions.countRemote(data));
+    }
+
+    @Test
+    void lengthPastTheEndIsUnknown() {
+        assertEquals(NTSubscriptions.kUnknown,
+                NTSubscriptions.countRemote(new Pack().raw(0xdd, 0x7f, 0xff, 0xff, 0xff).bytes()));
+        byte[] data = new Pack().raw(0x91, 0x81).str("client").raw(0xdb, 0x00, 0x00, 0x10, 0x00).bytes();
+        assertEquals(NTSubscriptions.kUnknown, NTSubscriptions.countRemote(data));
+    }
+
+    @Test
+    void valueCutShortAtTheEndIsUnknown() {
+        // the last value is skipped rather than read, it still has to be all there
+        byte[] data = new Pack().raw(0x91, 0x82).str("client").str("glass@2").str("subuid")
+                .raw(0xce, 0x00, 0x00).bytes();
+        assertEquals(NTSubscriptions.kUnknown, NTSubscriptions.countRemote(data));
+    }
+
+    @Test
+    void everyTruncationIsUnknown() {
+        byte[] data = new Pack().raw(0x92).subscription("shuffleboard@1", 3).subscription("", 4).bytes();
+        for (int length = 1; length < data.length; length++) {
+            assertEquals(NTSubscriptions.kUnknown, NTSubscriptions.countRemote(Arrays.copyOf(data, length)),
+                    "cut at " + length);
+        }
+    }
+}
@@ -0,0 +1,138 @@
+package com.igknighters.util.testing;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class TunableFileTest {
+    @TempDir
+    Path dir;
+
+    private Path file() {
+        return dir.resolve(TunableStore.kFileName);
+    }
+
+    private void append(byte[] bytes) throws IOException {
+        Files.write(file(), bytes, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+    }
+
+    @Test
+    void missingFileIsEmpty() throws IOException {
+        var contents = TunableFile.read(file());
+        assertEquals(0, contents.values.size());
+        assertEquals(0, contents.records);
+        assertFalse(contents.truncated);
+    }
+
+    @Test
+    void everyTypeReadsBack() throws IOException {
+        append(TunableFile.encode("arm/kP", 0.25));
+        append(TunableFile.encode("arm/enabled", true));
+        append(TunableFile.encode("arm/ticks", 42L));
+        append(TunableFile.encode("arm/name", "yin"));
+
+        var contents = TunableFile.read(file());
+        assertEquals(Map.of("arm/kP", 0.25, "arm/enabled", true, "arm/ticks", 42L, "arm/name", "yin"),
+                contents.values);
+        assertEquals(4, contents.records);
+        assertFalse(contents.truncated);
+    }
+
+    @Test
+    void lastRecordOfAKeyWins() throws IOException {
+        append(TunableFile.encode("arm/kP", 0.25));
+        append(TunableFile.encode("arm/kP", 0.5));
+
+        var contents = TunableFile.read(file());
+        assertEquals(0.5, contents.values.get("arm/kP"));
+        assertEquals(2, contents.records);
+    }
+
+    @Test
+    void recordCutShortIsDropped() throws IOException {
+        append(TunableFile.encode("arm/kP", 0.25));
+        append(TunableFile.encode("arm/kI", 0.01));
+        byte[] last = TunableFile.encode("arm/kD", 1.5);
+        // every length short of the whole record, like a power loss mid write
+        for (int length = 1; length < last.length; length++) {
+            var bytes = new ByteArrayOutputStream();
+            bytes.write(TunableFile.encode("arm/kP", 0.25));
+            bytes.write(TunableFile.encode("arm/kI", 0.01));
+            bytes.write(Arrays.copyOf(last, length));
+            Files.write(file(), bytes.toByteArray());
+
+            var contents = TunableFile.read(file());
+            assertEquals(Map.of("arm/kP", 0.25, "arm/kI", 0.01), contents.values);
+            assertEquals(2, contents.records);
+            assertTrue(contents.truncated, "cut at " + length);
+            assertTrue(contents.needsCompaction(TunableStore.kCompactRatio));
+        }
+    }
+
+    @Test
+    void unknownTypeStopsReading() throws IOException {
+        append(TunableFile.encode("arm/kP", 0.25));
+        byte[] record = TunableFile.encode("arm/kI", 0.01);
+        record[0] = 99;
+        append(record);
+        append(TunableFile.encode("arm/kD", 1.5));
+
+        var contents = TunableFile.read(file());
+        assertEquals(Map.of("arm/kP", 0.25), contents.values);
+        assertTrue(contents.truncated);
+    }
+
+    @Test
+    void compactionKeepsOneRecordPerKey() throws IOException {
+        for (int i = 0; i < 10; i++) {
+            append(TunableFile.encode("arm/kP", (double) i));
+        }
+        append(TunableFile.encode("arm/enabled", false));
+
+        var contents = TunableFile.read(file());
+        assertEquals(11, contents.records);
+        assertTrue(contents.needsCompaction(TunableStore.kCompactRatio));
+
+        TunableFile.writeCompacted(file(), contents.values);
+        var compacted = TunableFile.read(file());
+        assertEquals(contents.values, compacted.values);
+        assertEquals(2, compacted.records);
+        assertFalse(compacted.truncated);
+        assertFalse(compacted.needsCompaction(TunableStore.kCompactRatio));
+        assertFalse(Files.exists(dir.resolve(TunableStore.kFileName + ".tmp")));
+    }
+
+    @Test
+    void fewRepeatsDontNeedCompaction() throws IOException {
+        append(TunableFile.encode("arm/kP", 0.25));
+        append(TunableFile.encode("arm/kP", 0.5));
+        append(TunableFile.encode("arm/kI", 0.01));
+
+        assertFalse(TunableFile.read(file()).needsCompaction(TunableStore.kCompactRatio));
+    }
+
+    @Test
+    void appendsAfterRecoveringAreRead() throws IOException {
+        append(TunableFile.encode("arm/kP", 0.25));
+        append(Arrays.copyOf(TunableFile.encode("arm/kI", 0.01), 5));
+
+        var recovered = TunableFile.read(file());
+        TunableFile.writeCompacted(file(), recovered.values);
+        append(TunableFile.encode("arm/kD", 1.5));
+
+        var contents = TunableFile.read(file());
+        assertEquals(Map.of("arm/kP", 0.25, "arm/kD", 1.5), contents.values);
+        assertFalse(contents.truncated);
+    }
+}